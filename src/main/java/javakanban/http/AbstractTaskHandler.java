@@ -4,17 +4,27 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import javakanban.exceptions.NotFoundException;
+import javakanban.logging.Logger;
+import javakanban.manager.history.HistoryContext;
+import javakanban.manager.task.BoardCollection;
 import javakanban.manager.task.TaskManager;
+import javakanban.models.Page;
+import javakanban.models.Task;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
-public abstract class AbstractTaskHandler<T> extends BaseHttpHandler implements HttpHandler {
+public abstract class AbstractTaskHandler<T extends Task> extends BaseHttpHandler implements HttpHandler {
+
+    private static final Logger LOG = Logger.getLogger(AbstractTaskHandler.class);
 
     protected final Class<T> entityType;
+    protected final JsonCache jsonCache;
 
-    public AbstractTaskHandler(TaskManager taskManager, Gson gson, Class<T> entityType) {
+    public AbstractTaskHandler(TaskManager taskManager, Gson gson, JsonCache jsonCache, Class<T> entityType) {
         super(taskManager, gson);
+        this.jsonCache = jsonCache;
         this.entityType = entityType;
     }
 
@@ -35,7 +45,7 @@ public abstract class AbstractTaskHandler<T> extends BaseHttpHandler implements
             sendNotFound(exchange);
         } catch (IllegalArgumentException e) {
             if (e.getMessage().contains("пересекается по времени")) {
-                System.out.println("Обнаружено пересечение задач: " + e.getMessage());
+                LOG.debug(() -> "Обнаружено пересечение задач: " + e.getMessage());
                 sendHasInteractions(exchange);
             } else {
                 sendBadRequest(exchange, e.getMessage());
@@ -54,16 +64,34 @@ public abstract class AbstractTaskHandler<T> extends BaseHttpHandler implements
     }
 
     private void handleGetAll(HttpExchange exchange) throws IOException {
-        List<T> entities = getAllEntities();
-        String jsonResponse = gson.toJson(entities);
-        sendText(exchange, jsonResponse);
+        if (sendNotModifiedIfMatches(exchange, getCollection())) {
+            return;
+        }
+        Map<String, String> parameters = queryParameters(exchange);
+        if (isPageRequest(parameters)) {
+            int limit = pageLimit(parameters);
+            sendPage(exchange, jsonCache, getPage(afterId(parameters.get(CURSOR_PARAMETER)), limit));
+            return;
+        }
+        sendJson(exchange, jsonCache.collection(getCollection(), this::getAllEntities), 200);
+    }
+
+    private static int afterId(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
     }
 
     private void handleGetById(HttpExchange exchange, String path, String basePath) throws IOException {
         int id = extractIdFromPath(path, basePath);
-        T entity = getEntityById(id);
-        String jsonResponse = gson.toJson(entity);
-        sendText(exchange, jsonResponse);
+        String clientId = clientId(exchange);
+        byte[] json = jsonCache.entity(() -> HistoryContext.callAs(clientId, () -> getEntityById(id)));
+        sendJson(exchange, JsonBody.of(json), 200);
     }
 
     private void handlePost(HttpExchange exchange, String path, String basePath) throws IOException {
@@ -78,8 +106,7 @@ public abstract class AbstractTaskHandler<T> extends BaseHttpHandler implements
         String bodyJson = readRequestBody(exchange);
         T newEntity = gson.fromJson(bodyJson, entityType);
         T createdEntity = createEntity(newEntity);
-        String jsonResponse = gson.toJson(createdEntity);
-        sendText(exchange, jsonResponse, 201);
+        streamJson(exchange, createdEntity, 201);
     }
 
     private void handleUpdate(HttpExchange exchange, String path, String basePath) throws IOException {
@@ -88,8 +115,7 @@ public abstract class AbstractTaskHandler<T> extends BaseHttpHandler implements
         T updatedEntity = gson.fromJson(bodyJson, entityType);
         setEntityId(updatedEntity, id);
         T resultEntity = updateEntity(updatedEntity);
-        String jsonResponse = gson.toJson(resultEntity);
-        sendText(exchange, jsonResponse);
+        streamJson(exchange, resultEntity, 200);
     }
 
     private void handleDelete(HttpExchange exchange, String path, String basePath) throws IOException {
@@ -107,8 +133,7 @@ public abstract class AbstractTaskHandler<T> extends BaseHttpHandler implements
                 "ОШИБКА В ОБРАБОТЧИКЕ | Метод: %s | Путь: %s | Исключение: %s | Сообщение: %s",
                 method, path, exception.getClass().getName(), exception.getMessage()
         );
-        System.out.println(errorMessage);
-        exception.printStackTrace();
+        LOG.error(errorMessage, exception);
         sendInternalError(exchange);
     }
 
@@ -119,6 +144,8 @@ public abstract class AbstractTaskHandler<T> extends BaseHttpHandler implements
 
     protected abstract List<T> getAllEntities();
 
+    protected abstract Page<T> getPage(int afterId, int limit);
+
     protected abstract T getEntityById(int id);
 
     protected abstract T createEntity(T entity);
@@ -130,4 +157,6 @@ public abstract class AbstractTaskHandler<T> extends BaseHttpHandler implements
     protected abstract void setEntityId(T entity, int id);
 
     protected abstract String getBasePath();
+
+    protected abstract BoardCollection getCollection();
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package javakanban.http;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Фильтр допуска запросов: считает запросы в обработке, отвечает 503,
+ * когда сервер перегружен или останавливается, и позволяет дождаться завершения текущих запросов.
+ */
+public class AdmissionFilter extends Filter {
+
+    // Выставляется обработчиком отказа пула: запрос выполняется на потоке диспетчера только для ответа 503
+    private static final ThreadLocal<Boolean> REJECTED = ThreadLocal.withInitial(() -> false);
+
+    private final int maxInFlight;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition idle = lock.newCondition();
+    private int inFlight;
+    private boolean draining;
+
+    /**
+     * @param maxInFlight максимум одновременно обрабатываемых запросов (0 - без ограничения)
+     */
+    public AdmissionFilter(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Выполняет задачу, отклонённую пулом, так чтобы фильтр ответил на запрос 503
+     */
+    static void runRejected(Runnable exchangeTask) {
+        REJECTED.set(true);
+        try {
+            exchangeTask.run();
+        } finally {
+            REJECTED.remove();
+        }
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (REJECTED.get() || !tryAdmit()) {
+            sendServiceUnavailable(exchange);
+            return;
+        }
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Ограничение числа одновременных запросов";
+    }
+
+    /**
+     * Перестаёт принимать новые запросы и ждёт завершения уже начатых
+     *
+     * @return true, если все запросы завершились до истечения таймаута
+     */
+    public boolean drain(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            draining = true;
+            while (inFlight > 0) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = idle.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryAdmit() {
+        lock.lock();
+        try {
+            if (draining || (maxInFlight > 0 && inFlight >= maxInFlight)) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            if (--inFlight == 0) {
+                idle.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendServiceUnavailable(HttpExchange exchange) throws IOException {
+        byte[] resp = "Service Unavailable".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.getResponseHeaders().add("Retry-After", "1");
+        exchange.sendResponseHeaders(503, resp.length);
+        exchange.getResponseBody().write(resp);
+        exchange.close();
+    }
+}
@@ -2,14 +2,39 @@ package javakanban.http;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import javakanban.manager.history.HistoryContext;
+import javakanban.manager.task.BoardCollection;
 import javakanban.manager.task.TaskManager;
+import javakanban.models.Page;
+import javakanban.models.Task;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 
 public class BaseHttpHandler {
 
+    // Заголовок с идентификатором клиента: у каждого клиента своя история просмотров
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final int MAX_CLIENT_ID_LENGTH = 128;
+
+    // Версии начинаются заново при каждом запуске, поэтому ETag включает метку запуска и менеджера
+    private static final String STARTUP_TAG = Long.toString(System.currentTimeMillis(), 36);
+
+    // Тела меньше этого размера не сжимаются: выигрыш меньше заголовка gzip и затрат процессора
+    public static final int COMPRESSION_THRESHOLD = 1024;
+
+    // Постраничная выдача: ?limit=N&cursor=C, курсор следующей страницы - в заголовке ответа
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    protected static final String LIMIT_PARAMETER = "limit";
+    protected static final String CURSOR_PARAMETER = "cursor";
+
     protected final TaskManager taskManager;
     protected final Gson gson;
 
@@ -19,13 +44,39 @@ public class BaseHttpHandler {
     }
 
     protected void sendText(HttpExchange httpExchange, String text, int statusCode) throws IOException {
-        byte[] resp = text.getBytes(StandardCharsets.UTF_8);
+        sendJson(httpExchange, JsonBody.of(text.getBytes(StandardCharsets.UTF_8)), statusCode);
+    }
+
+    /**
+     * Отправляет тело с известной длиной как есть, а тело неизвестной длины - по частям.
+     * Если клиент принимает gzip или deflate, тело от {@link #COMPRESSION_THRESHOLD} байт сжимается
+     * на лету; размер потокового тела становится известен, только когда оно превысит порог.
+     */
+    protected void sendJson(HttpExchange httpExchange, JsonBody body, int statusCode) throws IOException {
         httpExchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        httpExchange.sendResponseHeaders(statusCode, resp.length);
-        httpExchange.getResponseBody().write(resp);
+        httpExchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        ContentEncoding encoding = ContentEncoding.negotiate(
+                httpExchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        long length = body.length();
+        if (encoding == ContentEncoding.IDENTITY || (length > 0 && length < COMPRESSION_THRESHOLD)) {
+            httpExchange.sendResponseHeaders(statusCode, length);
+            body.writeTo(httpExchange.getResponseBody());
+        } else {
+            try (OutputStream out = new CompressingResponseStream(httpExchange, statusCode, encoding,
+                    COMPRESSION_THRESHOLD, ContentEncoding.DEFAULT_LEVEL)) {
+                body.writeTo(out);
+            }
+        }
         httpExchange.close();
     }
 
+    /**
+     * Сериализует значение прямо в поток ответа, не собирая JSON в памяти целиком
+     */
+    protected void streamJson(HttpExchange httpExchange, Object value, int statusCode) throws IOException {
+        sendJson(httpExchange, JsonBody.stream(gson, value), statusCode);
+    }
+
     protected void sendText(HttpExchange httpExchange, String text) throws IOException {
         sendText(httpExchange, text, 200);
     }
@@ -66,6 +117,115 @@ public class BaseHttpHandler {
         exchange.close();
     }
 
+    /**
+     * @return идентификатор клиента из заголовка или общий, если заголовка нет или он слишком длинный
+     */
+    protected String clientId(HttpExchange exchange) {
+        String clientId = exchange.getRequestHeaders().getFirst(CLIENT_ID_HEADER);
+        if (clientId == null || clientId.isBlank() || clientId.length() > MAX_CLIENT_ID_LENGTH) {
+            return HistoryContext.SHARED;
+        }
+        return clientId.trim();
+    }
+
+    /**
+     * Условный GET: добавляет в ответ ETag по версиям наборов данных и, если клиент прислал
+     * If-None-Match с тем же значением, сразу отвечает 304 без чтения и сериализации данных.
+     *
+     * @return true, если ответ 304 уже отправлен
+     */
+    protected boolean sendNotModifiedIfMatches(HttpExchange exchange, BoardCollection... collections)
+            throws IOException {
+        StringBuilder etag = new StringBuilder("\"").append(STARTUP_TAG).append('-')
+                .append(Integer.toString(System.identityHashCode(taskManager), 36));
+        for (BoardCollection collection : collections) {
+            etag.append('-').append(taskManager.getVersion(collection));
+        }
+        String tag = etag.append('"').toString();
+
+        exchange.getResponseHeaders().set("ETag", tag);
+        if (!matches(exchange.getRequestHeaders().getFirst("If-None-Match"), tag)) {
+            return false;
+        }
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return параметры строки запроса (декодированные); у повторяющегося параметра - последнее значение
+     */
+    protected Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * @return true, если запрос просит постраничную выдачу
+     */
+    protected boolean isPageRequest(Map<String, String> parameters) {
+        return parameters.containsKey(LIMIT_PARAMETER) || parameters.containsKey(CURSOR_PARAMETER);
+    }
+
+    /**
+     * @return размер страницы из параметра limit или {@link #DEFAULT_PAGE_SIZE}
+     * @throws IllegalArgumentException если limit не число от 1 до {@link #MAX_PAGE_SIZE}
+     */
+    protected int pageLimit(Map<String, String> parameters) {
+        String limit = parameters.get(LIMIT_PARAMETER);
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        try {
+            int value = Integer.parseInt(limit);
+            if (value >= 1 && value <= MAX_PAGE_SIZE) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+            // ниже - общее сообщение об ошибке
+        }
+        throw new IllegalArgumentException("Параметр limit должен быть от 1 до " + MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Отправляет страницу: элементы - JSON-массивом, курсор следующей страницы - в заголовке
+     */
+    protected void sendPage(HttpExchange exchange, JsonCache jsonCache, Page<? extends Task> page)
+            throws IOException {
+        if (page.hasNext()) {
+            exchange.getResponseHeaders().set(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        sendJson(exchange, jsonCache.list(page::getItems), 200);
+    }
+
     protected String readRequestBody(HttpExchange exchange) throws IOException {
         InputStream requestBody = exchange.getRequestBody();
         return new String(requestBody.readAllBytes(),StandardCharsets.UTF_8);
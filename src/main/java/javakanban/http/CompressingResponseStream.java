@@ -0,0 +1,80 @@
+package javakanban.http;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Поток тела ответа, который решает о сжатии по размеру: первые threshold байт копятся в буфере.
+ * Если тело закончилось раньше, оно уходит без сжатия с известной длиной, иначе заголовки
+ * отправляются с Content-Encoding, а тело сжимается по мере записи и передаётся по частям.
+ */
+class CompressingResponseStream extends OutputStream {
+
+    private final HttpExchange exchange;
+    private final int statusCode;
+    private final ContentEncoding encoding;
+    private final int level;
+    private final byte[] buffer;
+    private int count;
+    private OutputStream compressed;
+    private boolean closed;
+
+    CompressingResponseStream(HttpExchange exchange, int statusCode, ContentEncoding encoding,
+                              int threshold, int level) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.encoding = encoding;
+        this.level = level;
+        this.buffer = new byte[threshold];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (compressed == null && count + length <= buffer.length) {
+            System.arraycopy(bytes, offset, buffer, count, length);
+            count += length;
+            return;
+        }
+        if (compressed == null) {
+            startCompression();
+        }
+        compressed.write(bytes, offset, length);
+    }
+
+    private void startCompression() throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Encoding", encoding.getToken());
+        // Сжатое тело - другое представление, поэтому строгий ETag становится слабым
+        String etag = headers.getFirst("ETag");
+        if (etag != null && etag.startsWith("\"")) {
+            headers.set("ETag", "W/" + etag);
+        }
+        exchange.sendResponseHeaders(statusCode, 0);
+        compressed = encoding.wrap(exchange.getResponseBody(), level);
+        compressed.write(buffer, 0, count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (compressed != null) {
+            compressed.close();
+            return;
+        }
+        exchange.sendResponseHeaders(statusCode, count > 0 ? count : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(buffer, 0, count);
+        }
+    }
+}
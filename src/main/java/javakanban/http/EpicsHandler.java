@@ -2,16 +2,20 @@ package javakanban.http;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import javakanban.logging.Logger;
+import javakanban.manager.task.BoardCollection;
 import javakanban.manager.task.TaskManager;
 import javakanban.models.Epic;
-import javakanban.models.Subtask;
+import javakanban.models.Page;
 
 import java.io.IOException;
 import java.util.List;
 
 public class EpicsHandler extends AbstractTaskHandler<Epic> {
-    public EpicsHandler(TaskManager taskManager, Gson gson) {
-        super(taskManager, gson, Epic.class);
+
+    private static final Logger LOG = Logger.getLogger(EpicsHandler.class);
+    public EpicsHandler(TaskManager taskManager, Gson gson, JsonCache jsonCache) {
+        super(taskManager, gson, jsonCache, Epic.class);
     }
 
     @Override
@@ -35,17 +39,25 @@ public class EpicsHandler extends AbstractTaskHandler<Epic> {
         try {
             String[] pathParts = path.split("/");
             int epicId = Integer.parseInt(pathParts[2]);
-
-            List<Subtask> subtasks = taskManager.getSubtasksByEpic(epicId);
-            String jsonResponse = gson.toJson(subtasks);
-            sendText(exchange, jsonResponse);
+            // Эпик проверяем до ETag: иначе на несуществующий эпик мог прийти 304.
+            // Версию читаем уже после проверки, а тело - после версии, чтобы ETag не опережал данные
+            if (!taskManager.containsEpic(epicId)) {
+                sendNotFound(exchange);
+                return;
+            }
+            if (sendNotModifiedIfMatches(exchange, BoardCollection.EPICS, BoardCollection.SUBTASKS)) {
+                return;
+            }
+
+            sendJson(exchange, jsonCache.list(() -> taskManager.getSubtasksByEpic(epicId)), 200);
 
         } catch (IllegalArgumentException e) {
-            System.out.println("Эпик не найден: " + e.getMessage());
+            LOG.debug(() -> "Эпик не найден: " + e.getMessage());
+            // Эпик могли удалить между проверкой и загрузкой: ETag к 404 не относится
+            exchange.getResponseHeaders().remove("ETag");
             sendNotFound(exchange);
         } catch (Exception exception) {
-            System.out.println("Внутренняя ошибка: " + exception.getMessage());
-            exception.printStackTrace();
+            LOG.error("Ошибка при получении подзадач эпика: " + path, exception);
             sendInternalError(exchange);
         }
     }
@@ -55,6 +67,11 @@ public class EpicsHandler extends AbstractTaskHandler<Epic> {
         return taskManager.getAllEpics();
     }
 
+    @Override
+    protected Page<Epic> getPage(int afterId, int limit) {
+        return taskManager.getEpics(afterId, limit);
+    }
+
     @Override
     protected Epic getEntityById(int id) {
         return taskManager.getEpicById(id);
@@ -84,4 +101,9 @@ public class EpicsHandler extends AbstractTaskHandler<Epic> {
     protected String getBasePath() {
         return "/epics";
     }
-}
\ No newline at end of file
+
+    @Override
+    protected BoardCollection getCollection() {
+        return BoardCollection.EPICS;
+    }
+}
@@ -0,0 +1,19 @@
+package javakanban.http;
+
+/**
+ * Режим выполнения запросов HTTP-сервера
+ */
+public enum ExecutorMode {
+    /**
+     * Все запросы на единственном потоке диспетчера JDK-сервера (прежнее поведение)
+     */
+    SINGLE_THREAD,
+    /**
+     * Фиксированный пул потоков с ограниченной очередью
+     */
+    BOUNDED_POOL,
+    /**
+     * Виртуальный поток на каждый запрос (JDK 21+), число одновременных запросов ограничено
+     */
+    VIRTUAL_THREADS
+}
@@ -3,14 +3,24 @@ package javakanban.http;
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import javakanban.manager.history.HistoryContext;
+import javakanban.logging.Logger;
+import javakanban.manager.task.BoardCollection;
 import javakanban.manager.task.TaskManager;
 import javakanban.models.Task;
+import javakanban.models.ViewCount;
 
 import java.io.IOException;
 import java.util.List;
 
 public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
 
+    private static final Logger LOG = Logger.getLogger(HistoryHandler.class);
+
+    private static final String TOP_PATH = "/history/top";
+    private static final int DEFAULT_TOP = 10;
+    private static final int MAX_TOP = 100;
+
     public HistoryHandler(TaskManager taskManager, Gson gson) {
         super(taskManager, gson);
     }
@@ -22,11 +32,40 @@ public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
                 sendNotAllowed(exchange);
                 return;
             }
-            List<Task> history = taskManager.getHistory();
-            String jsonResponse = gson.toJson(history);
-            sendText(exchange, jsonResponse);
+            if (TOP_PATH.equals(exchange.getRequestURI().getPath())) {
+                handleTop(exchange);
+                return;
+            }
+            if (sendNotModifiedIfMatches(exchange, BoardCollection.HISTORY)) {
+                return;
+            }
+            List<Task> history = HistoryContext.callAs(clientId(exchange), taskManager::getHistory);
+            streamJson(exchange, history, 200);
         } catch (Exception exception) {
+            LOG.error("Ошибка при обработке " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI().getPath(), exception);
             sendInternalError(exchange);
         }
     }
+
+    /**
+     * GET /history/top?k=N - самые просматриваемые задачи
+     */
+    private void handleTop(HttpExchange exchange) throws IOException {
+        int k = DEFAULT_TOP;
+        String parameter = queryParameters(exchange).get("k");
+        if (parameter != null) {
+            try {
+                k = Integer.parseInt(parameter);
+            } catch (NumberFormatException e) {
+                k = -1;
+            }
+        }
+        if (k < 1 || k > MAX_TOP) {
+            sendBadRequest(exchange, "Параметр k должен быть от 1 до " + MAX_TOP);
+            return;
+        }
+        List<ViewCount> top = taskManager.getTopViewed(k);
+        streamJson(exchange, top, 200);
+    }
 }
@@ -2,33 +2,73 @@ package javakanban.http;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import javakanban.logging.Logger;
 import javakanban.manager.Managers;
 import javakanban.manager.task.TaskManager;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpTaskServer {
+    private static final Logger LOG = Logger.getLogger(HttpTaskServer.class);
     private HttpServer server;
     private static final int PORT = 8080;
+    private static final int DEFAULT_QUEUE_LIMIT = 256;
+    private static final int STOP_TIMEOUT_SECONDS = 5;
     private final TaskManager taskManager;
     private final Gson gson;
-
-    public HttpTaskServer(TaskManager taskManager) throws IOException {
+    private final ExecutorService executor;
+    private final AdmissionFilter admissionFilter;
+    private final JsonCache jsonCache;
+
+    /**
+     * @param taskManager менеджер задач; для многопоточных режимов он должен быть потокобезопасным
+     *                    (например, {@link Managers#getConcurrent()})
+     * @param mode        режим выполнения запросов
+     * @param poolSize    число потоков пула (для BOUNDED_POOL)
+     * @param queueLimit  длина очереди пула (BOUNDED_POOL) или максимум одновременных запросов
+     *                    (VIRTUAL_THREADS); сверх лимита сервер отвечает 503
+     */
+    public HttpTaskServer(TaskManager taskManager, ExecutorMode mode, int poolSize, int queueLimit) throws IOException {
         this.taskManager = taskManager;
         this.gson = createGson();
+        this.jsonCache = new JsonCache(taskManager, gson);
         this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        this.executor = createExecutor(mode, poolSize, queueLimit);
+        this.admissionFilter = new AdmissionFilter(mode == ExecutorMode.VIRTUAL_THREADS ? queueLimit : 0);
+        server.setExecutor(executor);
         configureHandlers();
     }
 
+    public HttpTaskServer(TaskManager taskManager, ExecutorMode mode) throws IOException {
+        this(taskManager, mode, Runtime.getRuntime().availableProcessors() * 2, DEFAULT_QUEUE_LIMIT);
+    }
+
+    public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, ExecutorMode.SINGLE_THREAD);
+    }
+
     public HttpTaskServer() throws IOException {
         this(Managers.getDefault());
     }
 
-    private Gson createGson() {
+    /**
+     * @return Gson с адаптерами времени, которым сервер сериализует ответы
+     */
+    public static Gson createGson() {
         return new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                 .registerTypeAdapter(Duration.class, new DurationAdapter())
@@ -36,27 +76,77 @@ public class HttpTaskServer {
                 .create();
     }
 
+    private static ExecutorService createExecutor(ExecutorMode mode, int poolSize, int queueLimit) {
+        switch (mode) {
+            case BOUNDED_POOL:
+                BlockingQueue<Runnable> queue = queueLimit > 0
+                        ? new ArrayBlockingQueue<>(queueLimit)
+                        : new SynchronousQueue<>();
+                AtomicInteger threadNumber = new AtomicInteger();
+                return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue,
+                        runnable -> new Thread(runnable, "http-worker-" + threadNumber.incrementAndGet()),
+                        (runnable, pool) -> AdmissionFilter.runRejected(runnable));
+            case VIRTUAL_THREADS:
+                return newVirtualThreadExecutor();
+            default:
+                return null;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // JDK без виртуальных потоков: поток на запрос из растущего пула
+            return Executors.newCachedThreadPool();
+        }
+    }
+
     private void configureHandlers() {
 
-        server.createContext("/tasks/", new TasksHandler(taskManager, gson));
-        server.createContext("/epics/", new EpicsHandler(taskManager, gson));
+        addContext("/tasks/", new TasksHandler(taskManager, gson, jsonCache));
+        addContext("/epics/", new EpicsHandler(taskManager, gson, jsonCache));
 
-        server.createContext("/tasks", new TasksHandler(taskManager, gson));
-        server.createContext("/subtasks", new SubtasksHandler(taskManager, gson));
-        server.createContext("/epics", new EpicsHandler(taskManager, gson));
+        addContext("/tasks", new TasksHandler(taskManager, gson, jsonCache));
+        addContext("/subtasks", new SubtasksHandler(taskManager, gson, jsonCache));
+        addContext("/epics", new EpicsHandler(taskManager, gson, jsonCache));
 
-        server.createContext("/history", new HistoryHandler(taskManager, gson));
-        server.createContext("/prioritized", new PrioritizedHandler(taskManager, gson));
+        addContext("/history", new HistoryHandler(taskManager, gson));
+        addContext("/prioritized", new PrioritizedHandler(taskManager, gson, jsonCache));
+    }
+
+    private void addContext(String path, HttpHandler handler) {
+        server.createContext(path, handler).getFilters().add(admissionFilter);
     }
 
     public void start() {
         server.start();
-        System.out.println("HTTP-сервер запущен на порту " + PORT);
+        LOG.info("HTTP-сервер запущен на порту " + PORT);
     }
 
+    /**
+     * Останавливает сервер: новые запросы получают 503, начатые - дорабатывают
+     * (но не дольше нескольких секунд)
+     */
     public void stop() {
-        server.stop(0);
-        System.out.println("HTTP-сервер остановлен");
+        try {
+            admissionFilter.drain(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            server.stop(0);
+            if (executor != null) {
+                executor.shutdown();
+                if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.stop(0);
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        LOG.info("HTTP-сервер остановлен");
     }
 
     public Gson getGson() {
@@ -67,12 +157,19 @@ public class HttpTaskServer {
         return taskManager;
     }
 
+    /**
+     * @return кеш JSON-ответов сервера со счётчиками попаданий и промахов
+     */
+    public JsonCache getJsonCache() {
+        return jsonCache;
+    }
+
     public static void main(String[] args) throws IOException {
-        HttpTaskServer taskServer = new HttpTaskServer();
+        HttpTaskServer taskServer = new HttpTaskServer(Managers.getConcurrent(), ExecutorMode.VIRTUAL_THREADS);
         taskServer.start();
 
         System.out.println("Нажмите Enter для остановки сервера...");
         System.in.read();
         taskServer.stop();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package javakanban.http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Тело JSON-ответа. Готовые байты отправляются с известной длиной,
+ * остальное сериализуется прямо в поток ответа (chunked), без промежуточной строки.
+ */
+public interface JsonBody {
+
+    // Буфер символов между JsonWriter и потоком ответа; память на запрос не зависит от размера ответа
+    int STREAM_BUFFER_CHARS = 8 * 1024;
+
+    /**
+     * @return длина тела в байтах или 0, если она заранее неизвестна (передача по частям)
+     */
+    long length();
+
+    void writeTo(OutputStream out) throws IOException;
+
+    static JsonBody of(byte[] json) {
+        return new JsonBody() {
+            @Override
+            public long length() {
+                return json.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(json);
+            }
+        };
+    }
+
+    /**
+     * Тело, которое сериализует значение через JsonWriter по мере отправки
+     */
+    static JsonBody stream(Gson gson, Object value) {
+        return new JsonBody() {
+            @Override
+            public long length() {
+                return 0;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                JsonWriter jsonWriter = newJsonWriter(gson, out);
+                if (value == null) {
+                    gson.toJson(JsonNull.INSTANCE, jsonWriter);
+                } else {
+                    gson.toJson(value, value.getClass(), jsonWriter);
+                }
+                jsonWriter.flush();
+            }
+        };
+    }
+
+    /**
+     * JSON-массив из элементов, которые источник выдаёт по одному: каждый элемент сериализуется сразу,
+     * и весь массив в памяти не собирается
+     *
+     * @param source передаёт элементы в полученный Consumer
+     */
+    static <T> JsonBody streamArray(Gson gson, Class<T> type, Consumer<Consumer<T>> source) {
+        return new JsonBody() {
+            @Override
+            public long length() {
+                return 0;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                JsonWriter jsonWriter = newJsonWriter(gson, out);
+                jsonWriter.beginArray();
+                try {
+                    source.accept(element -> gson.toJson(element, type, jsonWriter));
+                } catch (JsonIOException e) {
+                    // Gson оборачивает ошибку записи; наружу отдаём исходную, как и stream()
+                    if (e.getCause() instanceof IOException cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+                jsonWriter.endArray();
+                jsonWriter.flush();
+            }
+        };
+    }
+
+    private static JsonWriter newJsonWriter(Gson gson, OutputStream out) throws IOException {
+        // Writer не закрываем: поток ответа закрывает сам обмен
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STREAM_BUFFER_CHARS);
+        return gson.newJsonWriter(writer);
+    }
+}
@@ -0,0 +1,195 @@
+package javakanban.http;
+
+import com.google.gson.Gson;
+import javakanban.manager.task.BoardChangeListener;
+import javakanban.manager.task.BoardCollection;
+import javakanban.manager.task.TaskManager;
+import javakanban.models.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Кеш готового JSON в UTF-8: фрагмент на каждую сущность и целый ответ на каждый набор данных.
+ * <p>
+ * Ответ для набора хранится вместе с его версией ({@link TaskManager#getVersion}) и отдаётся,
+ * пока версия не изменилась. При изменении ответ собирается заново из фрагментов сущностей,
+ * сериализуются только изменённые. Фрагменты сбрасываются по уведомлениям менеджера.
+ * Собранный ответ пишется в поток по фрагментам и запоминается целиком, только если он
+ * не больше {@link #MAX_CACHED_RESPONSE} байт: большие наборы собираются из фрагментов каждый раз.
+ * <p>
+ * Фрагмент, сериализованный во время изменения, мог устареть ещё до записи в кеш.
+ * Поэтому каждое уведомление увеличивает поколение кеша, а фрагмент записывается,
+ * только если поколение не менялось с момента, когда начали читать данные.
+ */
+public class JsonCache implements BoardChangeListener {
+
+    public static final int MAX_CACHED_RESPONSE = 1 << 20;
+
+    private static final byte[] EMPTY_ARRAY = "[]".getBytes(StandardCharsets.UTF_8);
+
+    private final TaskManager taskManager;
+    private final Gson gson;
+    private final Map<Integer, byte[]> fragments = new ConcurrentHashMap<>();
+    private final Map<BoardCollection, Response> responses = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder responseHits = new LongAdder();
+    private final LongAdder responseMisses = new LongAdder();
+    private final LongAdder fragmentHits = new LongAdder();
+    private final LongAdder fragmentMisses = new LongAdder();
+
+    /**
+     * Готовый ответ и версия набора данных, прочитанная до чтения самих данных
+     */
+    private static class Response {
+        final long version;
+        final byte[] json;
+
+        Response(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+
+    public JsonCache(TaskManager taskManager, Gson gson) {
+        this.taskManager = taskManager;
+        this.gson = gson;
+        taskManager.addChangeListener(this);
+    }
+
+    @Override
+    public void onChange(BoardCollection collection, int id) {
+        generation.incrementAndGet();
+        if (id == ALL) {
+            fragments.clear();
+        } else {
+            fragments.remove(id);
+        }
+    }
+
+    /**
+     * JSON-массив всего набора данных: из кеша, если набор не менялся, иначе собирается из фрагментов
+     * при отправке. Сущности читаются сразу, чтобы ошибки чтения возникли до отправки заголовков.
+     *
+     * @param loader читает сущности набора из менеджера
+     */
+    public JsonBody collection(BoardCollection collection, Supplier<? extends List<? extends Task>> loader) {
+        long version = taskManager.getVersion(collection);
+        Response cached = responses.get(collection);
+        if (cached != null && cached.version == version) {
+            responseHits.increment();
+            return JsonBody.of(cached.json);
+        }
+        responseMisses.increment();
+        return new FragmentListBody(loader, json -> responses.merge(collection, new Response(version, json),
+                (old, fresh) -> fresh.version >= old.version ? fresh : old));
+    }
+
+    /**
+     * JSON-массив сущностей, собранный из фрагментов; сам массив не кешируется
+     */
+    public JsonBody list(Supplier<? extends List<? extends Task>> loader) {
+        return new FragmentListBody(loader, null);
+    }
+
+    /**
+     * JSON одной сущности
+     *
+     * @param loader читает сущность из менеджера
+     */
+    public byte[] entity(Supplier<? extends Task> loader) {
+        long readGeneration = generation.get();
+        return fragment(loader.get(), readGeneration);
+    }
+
+    /**
+     * Массив, который пишется в поток по одному фрагменту. Если задан приёмник, копия ответа
+     * набирается параллельно и передаётся ему, пока не превысит {@link #MAX_CACHED_RESPONSE}.
+     */
+    private class FragmentListBody implements JsonBody {
+        private final long readGeneration;
+        private final List<? extends Task> entities;
+        private final Consumer<byte[]> completed;
+
+        FragmentListBody(Supplier<? extends List<? extends Task>> loader, Consumer<byte[]> completed) {
+            this.readGeneration = generation.get();
+            this.entities = loader.get();
+            this.completed = completed;
+        }
+
+        @Override
+        public long length() {
+            return entities.isEmpty() ? EMPTY_ARRAY.length : 0;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            if (entities.isEmpty()) {
+                out.write(EMPTY_ARRAY);
+                if (completed != null) {
+                    completed.accept(EMPTY_ARRAY);
+                }
+                return;
+            }
+            ByteArrayOutputStream copy = completed != null ? new ByteArrayOutputStream() : null;
+            for (int i = 0; i < entities.size(); i++) {
+                byte[] fragment = fragment(entities.get(i), readGeneration);
+                int separator = i == 0 ? '[' : ',';
+                out.write(separator);
+                out.write(fragment);
+                if (copy != null) {
+                    copy.write(separator);
+                    copy.write(fragment, 0, fragment.length);
+                    if (copy.size() > MAX_CACHED_RESPONSE) {
+                        copy = null;
+                    }
+                }
+            }
+            out.write(']');
+            if (copy != null) {
+                copy.write(']');
+                completed.accept(copy.toByteArray());
+            }
+        }
+    }
+
+    private byte[] fragment(Task task, long readGeneration) {
+        int id = task.getId();
+        byte[] cached = fragments.get(id);
+        if (cached != null) {
+            fragmentHits.increment();
+            return cached;
+        }
+        fragmentMisses.increment();
+        byte[] json = gson.toJson(task).getBytes(StandardCharsets.UTF_8);
+        // Проверка под блокировкой ячейки: уведомление сначала меняет поколение, затем удаляет фрагмент
+        fragments.compute(id, (key, current) -> generation.get() == readGeneration ? json : current);
+        return json;
+    }
+
+    public long getResponseHits() {
+        return responseHits.sum();
+    }
+
+    public long getResponseMisses() {
+        return responseMisses.sum();
+    }
+
+    public long getFragmentHits() {
+        return fragmentHits.sum();
+    }
+
+    public long getFragmentMisses() {
+        return fragmentMisses.sum();
+    }
+}
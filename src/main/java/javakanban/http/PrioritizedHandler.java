@@ -1,32 +1,171 @@
 package javakanban.http;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import javakanban.exceptions.NotFoundException;
+import javakanban.logging.Logger;
+import javakanban.manager.task.BoardCollection;
 import javakanban.manager.task.TaskManager;
+import javakanban.models.Conflict;
 import javakanban.models.Task;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * GET /prioritized - задачи по приоритету.
+ * ?limit=&amp;cursor= - постранично; ?from=&amp;to= - задачи, идущие в интервале (limit ограничивает число);
+ * ?from= без to - ближайшие задачи, начинающиеся не раньше from (по умолчанию {@link #DEFAULT_PAGE_SIZE}).
+ * GET /prioritized/free-slot?duration=&amp;from= - ближайшее свободное время для задачи длительностью duration минут.
+ * GET /prioritized/conflicts - группы задач, пересекающихся по времени.
+ * POST /prioritized/schedule {"ids": [...], "from": ...} - расставить задачи без времени по свободным промежуткам.
+ * Если from не указан, поиск идёт от текущего времени.
+ */
 public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
 
-    public PrioritizedHandler(TaskManager taskManager, Gson gson) {
+    private static final Logger LOG = Logger.getLogger(PrioritizedHandler.class);
+
+    private static final String FROM_PARAMETER = "from";
+    private static final String TO_PARAMETER = "to";
+    private static final String DURATION_PARAMETER = "duration";
+    private static final String FREE_SLOT_PATH = "/prioritized/free-slot";
+    private static final String SCHEDULE_PATH = "/prioritized/schedule";
+    private static final String CONFLICTS_PATH = "/prioritized/conflicts";
+
+    private final JsonCache jsonCache;
+
+    public PrioritizedHandler(TaskManager taskManager, Gson gson, JsonCache jsonCache) {
         super(taskManager, gson);
+        this.jsonCache = jsonCache;
+    }
+
+    /**
+     * Тело запроса POST /prioritized/schedule
+     */
+    private static class ScheduleRequest {
+        List<Integer> ids;
+        LocalDateTime from;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try {
-            if (!"GET".equals(exchange.getRequestMethod())) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (SCHEDULE_PATH.equals(path) && "POST".equals(method)) {
+                handleSchedule(exchange);
+                return;
+            }
+            if (!"GET".equals(method) || SCHEDULE_PATH.equals(path)) {
                 sendNotAllowed(exchange);
                 return;
             }
-            List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
-            String jsonResponse = gson.toJson(prioritizedTasks);
-            sendText(exchange, jsonResponse);
+            if (FREE_SLOT_PATH.equals(path)) {
+                handleFreeSlot(exchange);
+                return;
+            }
+            if (sendNotModifiedIfMatches(exchange, BoardCollection.PRIORITIZED)) {
+                return;
+            }
+            if (CONFLICTS_PATH.equals(path)) {
+                sendJson(exchange, JsonBody.streamArray(gson, Conflict.class, taskManager::forEachConflict), 200);
+                return;
+            }
+            Map<String, String> parameters = queryParameters(exchange);
+            if (parameters.containsKey(FROM_PARAMETER) || parameters.containsKey(TO_PARAMETER)) {
+                handleTimeRange(exchange, parameters);
+                return;
+            }
+            if (isPageRequest(parameters)) {
+                String cursor = parameters.get(CURSOR_PARAMETER);
+                int limit = pageLimit(parameters);
+                sendPage(exchange, jsonCache, taskManager.getPrioritizedTasks(
+                        cursor == null || cursor.isEmpty() ? null : cursor, limit));
+                return;
+            }
+            sendJson(exchange, jsonCache.collection(BoardCollection.PRIORITIZED, taskManager::getPrioritizedTasks), 200);
+        } catch (NotFoundException e) {
+            sendNotFound(exchange);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
         } catch (Exception exception) {
+            LOG.error("Ошибка при обработке " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI().getPath(), exception);
             sendInternalError(exchange);
         }
     }
+
+    private void handleTimeRange(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        if (parameters.containsKey(CURSOR_PARAMETER)) {
+            throw new IllegalArgumentException("Параметр cursor нельзя сочетать с from и to");
+        }
+        LocalDateTime from = parseTime(parameters.get(FROM_PARAMETER), LocalDateTime.MIN);
+        List<Task> tasks;
+        if (parameters.containsKey(TO_PARAMETER)) {
+            LocalDateTime to = parseTime(parameters.get(TO_PARAMETER), null);
+            int limit = parameters.containsKey(LIMIT_PARAMETER) ? pageLimit(parameters) : Integer.MAX_VALUE;
+            tasks = taskManager.getTasksBetween(from, to, limit);
+        } else {
+            tasks = taskManager.getTasksStartingAfter(from, pageLimit(parameters));
+        }
+        sendJson(exchange, jsonCache.list(() -> tasks), 200);
+    }
+
+    private void handleFreeSlot(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = queryParameters(exchange);
+        String minutes = parameters.get(DURATION_PARAMETER);
+        if (minutes == null) {
+            throw new IllegalArgumentException("Не указана длительность");
+        }
+        Duration duration;
+        try {
+            duration = Duration.ofMinutes(Long.parseLong(minutes));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Некорректная длительность: " + minutes);
+        }
+        LocalDateTime start = taskManager.findFreeSlot(duration,
+                parseTime(parameters.get(FROM_PARAMETER), now()));
+        Map<String, Object> slot = new LinkedHashMap<>();
+        slot.put("startTime", start);
+        slot.put("endTime", start.plus(duration));
+        streamJson(exchange, slot, 200);
+    }
+
+    private void handleSchedule(HttpExchange exchange) throws IOException {
+        ScheduleRequest request;
+        try {
+            request = gson.fromJson(readRequestBody(exchange), ScheduleRequest.class);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Некорректное тело запроса");
+        }
+        if (request == null || request.ids == null || request.ids.contains(null)) {
+            throw new IllegalArgumentException("Не указаны id задач");
+        }
+        List<Task> scheduled = taskManager.autoSchedule(request.ids,
+                request.from != null ? request.from : now());
+        streamJson(exchange, scheduled, 200);
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    private static LocalDateTime parseTime(String value, LocalDateTime defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректное время: " + value);
+        }
+    }
 }
\ No newline at end of file
@@ -1,15 +1,17 @@
 package javakanban.http;
 
 import com.google.gson.Gson;
+import javakanban.manager.task.BoardCollection;
 import javakanban.manager.task.TaskManager;
+import javakanban.models.Page;
 import javakanban.models.Subtask;
 
 import java.util.List;
 
 public class SubtasksHandler extends AbstractTaskHandler<Subtask> {
 
-    public SubtasksHandler(TaskManager taskManager, Gson gson) {
-        super(taskManager, gson, Subtask.class);
+    public SubtasksHandler(TaskManager taskManager, Gson gson, JsonCache jsonCache) {
+        super(taskManager, gson, jsonCache, Subtask.class);
     }
 
     @Override
@@ -17,6 +19,11 @@ public class SubtasksHandler extends AbstractTaskHandler<Subtask> {
         return taskManager.getAllSubtasks();
     }
 
+    @Override
+    protected Page<Subtask> getPage(int afterId, int limit) {
+        return taskManager.getSubtasks(afterId, limit);
+    }
+
     @Override
     protected Subtask getEntityById(int id) {
         return taskManager.getSubtaskById(id);
@@ -46,4 +53,9 @@ public class SubtasksHandler extends AbstractTaskHandler<Subtask> {
     protected String getBasePath() {
         return "/subtasks";
     }
-}
\ No newline at end of file
+
+    @Override
+    protected BoardCollection getCollection() {
+        return BoardCollection.SUBTASKS;
+    }
+}
@@ -1,15 +1,20 @@
 package javakanban.http;
 
 import com.google.gson.Gson;
+import javakanban.logging.Logger;
+import javakanban.manager.task.BoardCollection;
 import javakanban.manager.task.TaskManager;
+import javakanban.models.Page;
 import javakanban.models.Task;
 
 import java.util.List;
 
 public class TasksHandler extends AbstractTaskHandler<Task> {
 
-    public TasksHandler(TaskManager taskManager, Gson gson) {
-        super(taskManager, gson, Task.class);
+    private static final Logger LOG = Logger.getLogger(TasksHandler.class);
+
+    public TasksHandler(TaskManager taskManager, Gson gson, JsonCache jsonCache) {
+        super(taskManager, gson, jsonCache, Task.class);
     }
 
 
@@ -18,6 +23,11 @@ public class TasksHandler extends AbstractTaskHandler<Task> {
         return taskManager.getAllTasks();
     }
 
+    @Override
+    protected Page<Task> getPage(int afterId, int limit) {
+        return taskManager.getTasks(afterId, limit);
+    }
+
     @Override
     protected Task getEntityById(int id) {
         return taskManager.getTaskById(id);
@@ -25,16 +35,10 @@ public class TasksHandler extends AbstractTaskHandler<Task> {
 
     @Override
     protected Task createEntity(Task entity) {
-        System.out.println("Создание задачи: " + entity);
-        try {
-            Task result = taskManager.createTask(entity);
-            System.out.println("Задача создана: " + result);
-            return result;
-        } catch (Exception e) {
-            System.out.println("Ошибка при создании задачи: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+        LOG.debug(() -> "Создание задачи: " + entity);
+        Task result = taskManager.createTask(entity);
+        LOG.debug(() -> "Задача создана: " + result);
+        return result;
     }
 
     @Override
@@ -56,5 +60,9 @@ public class TasksHandler extends AbstractTaskHandler<Task> {
     protected String getBasePath() {
         return "/tasks";
     }
-}
 
+    @Override
+    protected BoardCollection getCollection() {
+        return BoardCollection.TASKS;
+    }
+}
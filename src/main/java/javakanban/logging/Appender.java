@@ -0,0 +1,16 @@
+package javakanban.logging;
+
+/**
+ * Получатель записей журнала
+ */
+public interface Appender extends AutoCloseable {
+
+    void append(LogRecord record);
+
+    /**
+     * Дописывает накопленные записи и освобождает ресурсы
+     */
+    @Override
+    default void close() {
+    }
+}
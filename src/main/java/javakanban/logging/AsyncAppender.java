@@ -0,0 +1,101 @@
+package javakanban.logging;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Асинхронная запись журнала: вызывающий поток только кладёт запись в ограниченную очередь,
+ * а фоновый поток передаёт записи обёрнутому получателю в порядке поступления.
+ * Если очередь заполнена, запись отбрасывается - поток запроса никогда не ждёт вывода.
+ * Число отброшенных записей сообщается в журнал отдельной записью, как только очередь разгрузится.
+ */
+public class AsyncAppender implements Appender {
+
+    public static final int DEFAULT_CAPACITY = 8 * 1024;
+
+    // Как часто фоновый поток проверяет, не закрыт ли получатель
+    private static final long POLL_MILLIS = 100;
+
+    private final Appender delegate;
+    private final BlockingQueue<LogRecord> queue;
+    private final LongAdder dropped = new LongAdder();
+    // Отброшено с момента последнего сообщения об этом
+    private final AtomicLong unreported = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public AsyncAppender(Appender delegate, int capacity) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public AsyncAppender(Appender delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public void append(LogRecord record) {
+        if (closed || !queue.offer(record)) {
+            dropped.increment();
+            unreported.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return сколько записей отброшено из-за переполнения очереди или после закрытия
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Дописывает записи, принятые до закрытия, и закрывает обёрнутого получателя
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delegate.close();
+    }
+
+    private void drain() {
+        while (!closed || !queue.isEmpty()) {
+            LogRecord record;
+            try {
+                record = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // Поток завершится вместе с приложением; остаток очереди дописываем сразу
+                record = queue.poll();
+                closed = true;
+            }
+            if (record != null) {
+                write(record);
+            }
+            long lost = unreported.get();
+            if (lost > 0 && queue.isEmpty()) {
+                unreported.addAndGet(-lost);
+                write(new LogRecord(Level.WARN, AsyncAppender.class.getSimpleName(),
+                        "Очередь журнала переполнена, пропущено записей: " + lost, null));
+            }
+        }
+    }
+
+    private void write(LogRecord record) {
+        try {
+            delegate.append(record);
+        } catch (RuntimeException e) {
+            // Ошибка вывода не должна останавливать запись журнала
+            dropped.increment();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package javakanban.logging;
+
+/**
+ * Уровень важности записи журнала, по возрастанию
+ */
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    /**
+     * Порог, при котором журнал выключен целиком
+     */
+    OFF
+}
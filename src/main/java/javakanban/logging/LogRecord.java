@@ -0,0 +1,53 @@
+package javakanban.logging;
+
+import java.time.Instant;
+
+/**
+ * Запись журнала. Поля фиксируются в потоке, который пишет в журнал,
+ * поэтому запись можно передать другому потоку
+ */
+public class LogRecord {
+
+    private final Instant time;
+    private final Level level;
+    private final String logger;
+    private final String thread;
+    private final String message;
+    private final Throwable error;
+
+    public LogRecord(Level level, String logger, String message, Throwable error) {
+        this.time = Instant.now();
+        this.level = level;
+        this.logger = logger;
+        this.thread = Thread.currentThread().getName();
+        this.message = message;
+        this.error = error;
+    }
+
+    public Instant getTime() {
+        return time;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public String getLogger() {
+        return logger;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return исключение, приложенное к записи, или null
+     */
+    public Throwable getError() {
+        return error;
+    }
+}
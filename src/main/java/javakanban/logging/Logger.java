@@ -0,0 +1,103 @@
+package javakanban.logging;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Журнал приложения. Порог уровня и получатель записей общие для всех журналов;
+ * по умолчанию порог берётся из системного свойства {@value #LEVEL_PROPERTY} (INFO, если не задан),
+ * а записи асинхронно выводятся в System.err.
+ * Записи ниже порога не создаются вовсе; дорогие сообщения передаются через Supplier,
+ * чтобы строка собиралась, только когда уровень включён.
+ */
+public final class Logger {
+
+    public static final String LEVEL_PROPERTY = "javakanban.log.level";
+
+    private static volatile Level threshold = levelFromProperty();
+    private static volatile Appender appender = createDefaultAppender();
+
+    private final String name;
+
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    public static Logger getLogger(Class<?> type) {
+        return new Logger(type.getSimpleName());
+    }
+
+    public static Level getLevel() {
+        return threshold;
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    /**
+     * Заменяет получателя записей для всех журналов
+     *
+     * @return прежний получатель; закрыть его, если нужно, должен вызывающий код
+     */
+    public static Appender setAppender(Appender newAppender) {
+        Appender previous = appender;
+        appender = newAppender;
+        return previous;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level != Level.OFF && level.compareTo(threshold) >= 0;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            append(Level.DEBUG, message.get(), null);
+        }
+    }
+
+    public void info(String message) {
+        log(Level.INFO, message, null);
+    }
+
+    public void warn(String message) {
+        log(Level.WARN, message, null);
+    }
+
+    public void error(String message, Throwable error) {
+        log(Level.ERROR, message, error);
+    }
+
+    public void log(Level level, String message, Throwable error) {
+        if (isEnabled(level)) {
+            append(level, message, error);
+        }
+    }
+
+    private void append(Level level, String message, Throwable error) {
+        appender.append(new LogRecord(level, name, message, error));
+    }
+
+    private static Level levelFromProperty() {
+        String value = System.getProperty(LEVEL_PROPERTY);
+        if (value == null) {
+            return Level.INFO;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    private static Appender createDefaultAppender() {
+        AsyncAppender async = new AsyncAppender(new StreamAppender(System.err));
+        // Дописываем очередь при завершении программы
+        Runtime.getRuntime().addShutdownHook(new Thread(async::close, "log-shutdown"));
+        return async;
+    }
+}
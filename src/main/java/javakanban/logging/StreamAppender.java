@@ -0,0 +1,36 @@
+package javakanban.logging;
+
+import java.io.PrintStream;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Пишет записи в поток вывода строками вида "время УРОВЕНЬ [поток] журнал - сообщение",
+ * исключение - следом, со стеком вызовов. Записывает синхронно, поэтому обычно
+ * используется за {@link AsyncAppender}.
+ */
+public class StreamAppender implements Appender {
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final PrintStream out;
+
+    public StreamAppender(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public synchronized void append(LogRecord record) {
+        out.println(TIME_FORMAT.format(record.getTime()) + " " + record.getLevel()
+                + " [" + record.getThread() + "] " + record.getLogger() + " - " + record.getMessage());
+        if (record.getError() != null) {
+            record.getError().printStackTrace(out);
+        }
+    }
+
+    @Override
+    public void close() {
+        out.flush();
+    }
+}
@@ -1,7 +1,12 @@
 package javakanban.manager;
 
+import javakanban.manager.history.AsyncHistoryManager;
 import javakanban.manager.history.HistoryManager;
+import javakanban.manager.history.IdHistoryManager;
 import javakanban.manager.history.InMemoryHistoryManager;
+import javakanban.manager.history.PartitionedHistoryManager;
+import javakanban.manager.history.RingBufferHistoryManager;
+import javakanban.manager.task.ConcurrentTaskManager;
 import javakanban.manager.task.InMemoryTaskManager;
 import javakanban.manager.task.TaskManager;
 
@@ -14,7 +19,30 @@ public class Managers {
         return new InMemoryTaskManager(getDefaultHistory());
     }
 
+    /**
+     * Менеджер для многопоточного HTTP-сервера: история ведётся отдельно для каждого клиента
+     * и записывается асинхронно
+     */
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager(
+                new AsyncHistoryManager(new PartitionedHistoryManager()));
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
-}
\ No newline at end of file
+
+    /**
+     * История с ограниченной ёмкостью: при заполнении вытесняются самые старые просмотры
+     */
+    public static HistoryManager getBoundedHistory(int capacity) {
+        return new RingBufferHistoryManager(capacity);
+    }
+
+    /**
+     * История, хранящая только id: задачи запрашиваются у менеджера задач при чтении истории
+     */
+    public static HistoryManager getIdOnlyHistory(int capacity) {
+        return new IdHistoryManager(capacity);
+    }
+}
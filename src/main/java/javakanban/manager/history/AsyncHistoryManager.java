@@ -0,0 +1,186 @@
+package javakanban.manager.history;
+
+import javakanban.models.Task;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * Асинхронная запись истории: просмотр только публикует событие в неблокирующую очередь,
+ * а фоновый поток применяет события к обёрнутой истории в порядке публикации.
+ * Поэтому чтение задачи не захватывает общих блокировок.
+ * getHistory() возвращает согласованный в конечном счёте снимок; чтобы увидеть все
+ * опубликованные события, перед чтением вызывается {@link #flush()}.
+ */
+public class AsyncHistoryManager implements ConcurrentHistoryManager, AutoCloseable {
+
+    // Сколько событий применяется за один захват блокировки, чтобы не задерживать getHistory()
+    private static final int MAX_BATCH = 1024;
+
+    private final HistoryManager delegate;
+    private final ReentrantLock delegateLock = new ReentrantLock();
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicLong published = new AtomicLong();
+    private final Object appliedMonitor = new Object();
+    private final Thread consumer;
+    private final boolean snapshotNeeded;
+    private volatile long applied;
+    private volatile boolean parked;
+    private volatile boolean closed;
+
+    /**
+     * Событие истории: просмотр задачи или удаление по id
+     */
+    private static class Event {
+        final Task task;
+        final int removedId;
+        // Клиент, от имени которого был просмотр: событие применяется в другом потоке
+        final String clientId;
+
+        Event(Task task, int removedId) {
+            this.task = task;
+            this.removedId = removedId;
+            this.clientId = HistoryContext.current();
+        }
+    }
+
+    /**
+     * @param delegate история, к которой применяются события; используется только фоновым потоком
+     *                 и под блокировкой при чтении
+     */
+    public AsyncHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+        this.snapshotNeeded = delegate.needsTaskSnapshot();
+        this.consumer = new Thread(this::consume, "history-consumer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) return;
+
+        // Копия фиксирует состояние на момент просмотра - к применению задачу могут изменить
+        publish(new Event(snapshotNeeded ? task.copy() : task, 0));
+    }
+
+    @Override
+    public void remove(int id) {
+        publish(new Event(null, id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        delegateLock.lock();
+        try {
+            return delegate.getHistory();
+        } finally {
+            delegateLock.unlock();
+        }
+    }
+
+    @Override
+    public void attach(IntFunction<Task> resolver) {
+        delegate.attach(resolver);
+    }
+
+    @Override
+    public boolean needsTaskSnapshot() {
+        return snapshotNeeded;
+    }
+
+    /**
+     * Ждёт, пока будут применены все события, опубликованные до вызова,
+     * в том числе все просмотры и удаления, сделанные этим потоком
+     */
+    @Override
+    public void flush() {
+        long target = published.get();
+        synchronized (appliedMonitor) {
+            while (applied < target) {
+                LockSupport.unpark(consumer);
+                try {
+                    appliedMonitor.wait(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Применяет оставшиеся события и останавливает фоновый поток
+     */
+    @Override
+    public void close() {
+        flush();
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(Event event) {
+        if (closed) {
+            throw new IllegalStateException("История закрыта");
+        }
+        // Счётчик растёт до постановки в очередь: иначе flush() другого потока, прочитавший счётчик
+        // после нашего события в очереди, мог бы не дождаться события, стоящего перед его собственным
+        published.incrementAndGet();
+        events.offer(event);
+        if (parked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void consume() {
+        while (!closed || !events.isEmpty()) {
+            Event event = events.poll();
+            if (event == null) {
+                parked = true;
+                // повторная проверка: событие могли опубликовать до установки флага
+                if (events.isEmpty() && !closed) {
+                    LockSupport.parkNanos(this, 1_000_000);
+                }
+                parked = false;
+                continue;
+            }
+
+            int count = 0;
+            delegateLock.lock();
+            try {
+                // Применяем накопившееся пачкой под одним захватом блокировки
+                while (event != null) {
+                    apply(event);
+                    if (++count == MAX_BATCH) {
+                        break;
+                    }
+                    event = events.poll();
+                }
+            } finally {
+                delegateLock.unlock();
+            }
+            synchronized (appliedMonitor) {
+                applied += count;
+                appliedMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void apply(Event event) {
+        if (event.task != null) {
+            HistoryContext.runAs(event.clientId, () -> delegate.add(event.task));
+        } else {
+            delegate.remove(event.removedId);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package javakanban.manager.history;
+
+/**
+ * История, которую можно вызывать из нескольких потоков без внешней синхронизации.
+ * Потокобезопасные менеджеры задач не оборачивают такую историю в общую блокировку.
+ */
+public interface ConcurrentHistoryManager extends HistoryManager {
+}
@@ -0,0 +1,200 @@
+package javakanban.manager.history;
+
+import javakanban.utils.IntIntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Приблизительный подсчёт самых просматриваемых id при фиксированном объёме памяти.
+ * Частоты оцениваются скетчем count-min (depth строк по width счётчиков; оценка не меньше
+ * точного значения и завышена не более чем на ~e/width от общего числа просмотров),
+ * а кандидаты в лидеры держатся в небольшой min-куче.
+ * Учёт просмотра не блокирует: счётчики скетча атомарные, а куча обновляется только если
+ * её блокировка свободна - горячий id всё равно попадёт в кучу на одном из следующих просмотров.
+ */
+public class HeavyHitters {
+
+    public static final int DEFAULT_CAPACITY = 100;
+    public static final int DEFAULT_WIDTH = 4096;
+    public static final int DEFAULT_DEPTH = 4;
+
+    // Нечётные множители для независимых хешей строк скетча
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counters;
+
+    private final ReentrantLock heapLock = new ReentrantLock();
+    private final int capacity;
+    private final int[] heapIds;
+    private final long[] heapCounts;
+    private final IntIntMap heapPositions = new IntIntMap();
+    private int heapSize;
+
+    /**
+     * Пара "id - оценка числа просмотров"
+     */
+    public static class Entry {
+        private final int id;
+        private final long count;
+
+        Entry(int id, long count) {
+            this.id = id;
+            this.count = count;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    public HeavyHitters() {
+        this(DEFAULT_CAPACITY, DEFAULT_WIDTH, DEFAULT_DEPTH);
+    }
+
+    /**
+     * @param capacity сколько лидеров отслеживать (максимальное k в {@link #top(int)})
+     * @param width    число счётчиков в строке скетча (точность)
+     * @param depth    число строк скетча (вероятность ошибки), не больше 8
+     */
+    public HeavyHitters(int capacity, int width, int depth) {
+        if (capacity < 1 || width < 1 || depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Некорректные размеры скетча");
+        }
+        this.capacity = capacity;
+        this.width = width;
+        this.depth = depth;
+        this.counters = new AtomicLongArray(width * depth);
+        this.heapIds = new int[capacity];
+        this.heapCounts = new long[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Учитывает один просмотр
+     */
+    public void record(int id) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(row * width + bucket(id, row)));
+        }
+        if (heapLock.tryLock()) {
+            try {
+                offer(id, estimate);
+            } finally {
+                heapLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return оценка числа просмотров id
+     */
+    public long estimate(int id) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(row * width + bucket(id, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * @return до k самых просматриваемых id по убыванию оценки
+     */
+    public List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>();
+        heapLock.lock();
+        try {
+            for (int i = 0; i < heapSize; i++) {
+                entries.add(new Entry(heapIds[i], heapCounts[i]));
+            }
+        } finally {
+            heapLock.unlock();
+        }
+        entries.sort((first, second) -> Long.compare(second.count, first.count));
+        return entries.size() > k ? new ArrayList<>(entries.subList(0, k)) : entries;
+    }
+
+    private int bucket(int id, int row) {
+        long hash = (id + 1L) * SEEDS[row];
+        return (int) ((hash >>> 32) % width);
+    }
+
+    private void offer(int id, long estimate) {
+        int position = heapPositions.get(id);
+        if (position != IntIntMap.MISSING) {
+            heapCounts[position] = Math.max(heapCounts[position], estimate);
+            siftDown(position);
+            return;
+        }
+        if (heapSize < capacity) {
+            heapIds[heapSize] = id;
+            heapCounts[heapSize] = estimate;
+            heapPositions.put(id, heapSize);
+            siftUp(heapSize++);
+            return;
+        }
+        if (estimate > heapCounts[0]) {
+            heapPositions.remove(heapIds[0]);
+            heapIds[0] = id;
+            heapCounts[0] = estimate;
+            heapPositions.put(id, 0);
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heapCounts[parent] <= heapCounts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < heapSize && heapCounts[left] < heapCounts[smallest]) {
+                smallest = left;
+            }
+            if (right < heapSize && heapCounts[right] < heapCounts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int first, int second) {
+        int id = heapIds[first];
+        heapIds[first] = heapIds[second];
+        heapIds[second] = id;
+        long count = heapCounts[first];
+        heapCounts[first] = heapCounts[second];
+        heapCounts[second] = count;
+        heapPositions.put(heapIds[first], first);
+        heapPositions.put(heapIds[second], second);
+    }
+}
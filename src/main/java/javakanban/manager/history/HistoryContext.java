@@ -0,0 +1,50 @@
+package javakanban.manager.history;
+
+import java.util.function.Supplier;
+
+/**
+ * Клиент, от имени которого выполняется текущий вызов менеджера задач.
+ * HTTP-обработчики выставляют его на время запроса, а {@link PartitionedHistoryManager}
+ * выбирает по нему раздел истории. Вне контекста используется общий раздел.
+ */
+public final class HistoryContext {
+
+    public static final String SHARED = "";
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    private HistoryContext() {
+    }
+
+    /**
+     * @return идентификатор клиента текущего потока или {@link #SHARED}
+     */
+    public static String current() {
+        String clientId = CLIENT.get();
+        return clientId != null ? clientId : SHARED;
+    }
+
+    /**
+     * Выполняет действие от имени клиента и восстанавливает прежний контекст
+     */
+    public static <T> T callAs(String clientId, Supplier<T> action) {
+        String previous = CLIENT.get();
+        CLIENT.set(clientId);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CLIENT.set(previous);
+            } else {
+                CLIENT.remove();
+            }
+        }
+    }
+
+    public static void runAs(String clientId, Runnable action) {
+        callAs(clientId, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -3,6 +3,7 @@ package javakanban.manager.history;
 import javakanban.models.Task;
 
 import java.util.List;
+import java.util.function.IntFunction;
 
 public interface HistoryManager {
 
@@ -11,4 +12,27 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
-}
\ No newline at end of file
+
+    /**
+     * Подключает источник актуальных задач по id. Менеджер задач вызывает его при создании;
+     * истории, которые хранят копии задач, его игнорируют.
+     *
+     * @param resolver возвращает копию текущей задачи по id или null, если задачи больше нет
+     */
+    default void attach(IntFunction<Task> resolver) {
+    }
+
+    /**
+     * @return нужна ли истории копия задачи на момент просмотра (false - достаточно id)
+     */
+    default boolean needsTaskSnapshot() {
+        return true;
+    }
+
+    /**
+     * Ждёт, пока станут видны все добавления и удаления, сделанные до вызова.
+     * Нужно историям, которые применяют изменения асинхронно; у остальных ничего не делает.
+     */
+    default void flush() {
+    }
+}
@@ -0,0 +1,166 @@
+package javakanban.manager.history;
+
+import javakanban.utils.IntIntMap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Ядро ограниченной истории: порядок просмотров id на массивах фиксированной ёмкости.
+ * Ячейки связаны в двусвязный список индексами (prev/next), свободные ячейки - в стек,
+ * а id отображается на ячейку примитивной хеш-таблицей. Добавление, перенос в конец,
+ * удаление и вытеснение самой старой записи - O(1) и без выделения памяти на просмотр.
+ * Массивы растут удвоением до ёмкости, поэтому пустая история почти не занимает места.
+ * Сами данные просмотров хранит владелец в своих массивах по номеру ячейки.
+ */
+class HistoryRing {
+
+    static final int NONE = -1;
+
+    private static final int INITIAL_SLOTS = 16;
+
+    private final int capacity;
+    private final IntIntMap slotsById = new IntIntMap();
+    private int[] ids;
+    private int[] prev;
+    private int[] next;
+    private int oldest = NONE;
+    private int newest = NONE;
+    private int freeTop = NONE;
+    private int used;
+    private int size;
+
+    HistoryRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной");
+        }
+        this.capacity = capacity;
+        allocate(Math.min(capacity, INITIAL_SLOTS));
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return текущая длина массивов ячеек; массивы данных владельца должны быть не короче
+     */
+    int allocatedSlots() {
+        return ids.length;
+    }
+
+    int slotOf(int id) {
+        return slotsById.get(id);
+    }
+
+    /**
+     * Делает id самым новым: переносит его ячейку в конец или занимает новую.
+     * При заполненной истории вытесняет самую старую запись и переиспользует её ячейку.
+     *
+     * @return ячейка, в которой теперь хранится id
+     */
+    int touch(int id) {
+        int slot = slotsById.get(id);
+        if (slot != IntIntMap.MISSING) {
+            unlink(slot);
+            linkNewest(slot);
+            return slot;
+        }
+        if (size == capacity) {
+            slot = oldest;
+            slotsById.remove(ids[slot]);
+            unlink(slot);
+            size--;
+        } else {
+            slot = allocateSlot();
+        }
+        ids[slot] = id;
+        slotsById.put(id, slot);
+        linkNewest(slot);
+        size++;
+        return slot;
+    }
+
+    /**
+     * @return освобождённая ячейка или {@link #NONE}, если id в истории не было
+     */
+    int remove(int id) {
+        int slot = slotsById.remove(id);
+        if (slot == IntIntMap.MISSING) {
+            return NONE;
+        }
+        unlink(slot);
+        next[slot] = freeTop;
+        freeTop = slot;
+        size--;
+        return slot;
+    }
+
+    void clear() {
+        slotsById.clear();
+        oldest = NONE;
+        newest = NONE;
+        freeTop = NONE;
+        used = 0;
+        size = 0;
+    }
+
+    /**
+     * Обходит занятые ячейки от самой старой записи к самой новой
+     */
+    void forEachSlot(IntConsumer action) {
+        for (int slot = oldest; slot != NONE; slot = next[slot]) {
+            action.accept(slot);
+        }
+    }
+
+    int idAt(int slot) {
+        return ids[slot];
+    }
+
+    private int allocateSlot() {
+        if (freeTop != NONE) {
+            int slot = freeTop;
+            freeTop = next[slot];
+            return slot;
+        }
+        if (used == ids.length) {
+            allocate(Math.min(capacity, ids.length << 1));
+        }
+        return used++;
+    }
+
+    private void allocate(int length) {
+        ids = ids == null ? new int[length] : Arrays.copyOf(ids, length);
+        prev = prev == null ? new int[length] : Arrays.copyOf(prev, length);
+        next = next == null ? new int[length] : Arrays.copyOf(next, length);
+    }
+
+    private void linkNewest(int slot) {
+        prev[slot] = newest;
+        next[slot] = NONE;
+        if (newest == NONE) {
+            oldest = slot;
+        } else {
+            next[newest] = slot;
+        }
+        newest = slot;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] == NONE) {
+            oldest = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NONE) {
+            newest = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+    }
+}
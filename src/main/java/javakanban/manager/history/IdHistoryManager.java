@@ -0,0 +1,99 @@
+package javakanban.manager.history;
+
+import javakanban.models.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * История, хранящая только id просмотренных задач - несколько байт на запись вместо полной копии.
+ * Актуальные задачи запрашиваются у менеджера задач при вызове getHistory(),
+ * удалённые к этому моменту задачи пропускаются.
+ * Порядок и вытеснение - как в {@link RingBufferHistoryManager}.
+ * Потокобезопасна: id копируются под своей блокировкой, а задачи запрашиваются уже без неё,
+ * поэтому блокировки истории и менеджера задач никогда не захватываются вложенно.
+ */
+public class IdHistoryManager implements ConcurrentHistoryManager {
+
+    private final HistoryRing ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile IntFunction<Task> resolver;
+
+    /**
+     * История без ограничения размера
+     */
+    public IdHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param capacity максимальное число задач в истории
+     */
+    public IdHistoryManager(int capacity) {
+        this.ring = new HistoryRing(capacity);
+    }
+
+    @Override
+    public void attach(IntFunction<Task> resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public boolean needsTaskSnapshot() {
+        return false;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) return;
+
+        lock.lock();
+        try {
+            ring.touch(task.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        lock.lock();
+        try {
+            ring.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return текущие версии задач в порядке просмотра (от старых к новым)
+     */
+    @Override
+    public List<Task> getHistory() {
+        IntFunction<Task> resolver = this.resolver;
+        if (resolver == null) {
+            throw new IllegalStateException("История не подключена к менеджеру задач");
+        }
+
+        int[] ids;
+        lock.lock();
+        try {
+            ids = new int[ring.size()];
+            int[] position = {0};
+            ring.forEachSlot(slot -> ids[position[0]++] = ring.idAt(slot));
+        } finally {
+            lock.unlock();
+        }
+
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = resolver.apply(id);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+}
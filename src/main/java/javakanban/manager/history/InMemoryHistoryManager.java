@@ -1,11 +1,10 @@
 package javakanban.manager.history;
 
 import javakanban.models.Task;
+import javakanban.utils.IntObjectMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Менеджер истории просмотров задач, реализующий:
@@ -15,7 +14,7 @@ import java.util.Map;
  */
 public class InMemoryHistoryManager implements HistoryManager {
 
-    private final Map<Integer, Node> historyMap = new HashMap<>();
+    private final IntObjectMap<Node> historyMap = new IntObjectMap<>();
 
     private Node head;
     private Node tail;
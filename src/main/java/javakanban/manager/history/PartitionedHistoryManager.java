@@ -0,0 +1,202 @@
+package javakanban.manager.history;
+
+import javakanban.models.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * История, разделённая по клиентам ({@link HistoryContext}).
+ * Каждый раздел - ограниченное кольцо id (как в {@link IdHistoryManager}) со своей блокировкой,
+ * поэтому клиенты не мешают друг другу. Разделов не больше maxPartitions, а записей во всех
+ * разделах вместе - не больше maxTotalEntries; при превышении целиком удаляются разделы,
+ * к которым дольше всего не обращались. Удаление идёт пачкой до 90% лимита,
+ * чтобы обход всех разделов случался редко.
+ */
+public class PartitionedHistoryManager implements ConcurrentHistoryManager {
+
+    public static final int DEFAULT_PARTITION_CAPACITY = 100;
+    public static final int DEFAULT_MAX_PARTITIONS = 10_000;
+    public static final int DEFAULT_MAX_TOTAL_ENTRIES = 200_000;
+
+    private final int partitionCapacity;
+    private final int maxPartitions;
+    private final int maxTotalEntries;
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final AtomicInteger totalEntries = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private volatile IntFunction<Task> resolver;
+
+    /**
+     * Раздел истории одного клиента
+     */
+    private static class Partition {
+        final HistoryRing ring;
+        volatile long lastAccess;
+        boolean evicted;
+
+        Partition(int capacity) {
+            this.ring = new HistoryRing(capacity);
+        }
+    }
+
+    private static class Candidate {
+        final String clientId;
+        final Partition partition;
+        final long lastAccess;
+
+        Candidate(String clientId, Partition partition) {
+            this.clientId = clientId;
+            this.partition = partition;
+            this.lastAccess = partition.lastAccess;
+        }
+    }
+
+    public PartitionedHistoryManager() {
+        this(DEFAULT_PARTITION_CAPACITY, DEFAULT_MAX_PARTITIONS, DEFAULT_MAX_TOTAL_ENTRIES);
+    }
+
+    /**
+     * @param partitionCapacity максимум записей в истории одного клиента
+     * @param maxPartitions     максимум одновременно хранимых клиентов
+     * @param maxTotalEntries   общий лимит записей во всех разделах
+     */
+    public PartitionedHistoryManager(int partitionCapacity, int maxPartitions, int maxTotalEntries) {
+        if (partitionCapacity < 1 || maxPartitions < 1 || maxTotalEntries < partitionCapacity) {
+            throw new IllegalArgumentException("Некорректные лимиты истории");
+        }
+        this.partitionCapacity = partitionCapacity;
+        this.maxPartitions = maxPartitions;
+        this.maxTotalEntries = maxTotalEntries;
+    }
+
+    @Override
+    public void attach(IntFunction<Task> resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public boolean needsTaskSnapshot() {
+        return false;
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    public int getTotalEntries() {
+        return totalEntries.get();
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) return;
+
+        String clientId = HistoryContext.current();
+        while (true) {
+            Partition partition = partitions.computeIfAbsent(clientId, key -> new Partition(partitionCapacity));
+            synchronized (partition) {
+                // раздел могли вытеснить между поиском и блокировкой - берём новый
+                if (partition.evicted) {
+                    continue;
+                }
+                int before = partition.ring.size();
+                partition.ring.touch(task.getId());
+                partition.lastAccess = clock.incrementAndGet();
+                totalEntries.addAndGet(partition.ring.size() - before);
+            }
+            break;
+        }
+        if (partitions.size() > maxPartitions || totalEntries.get() > maxTotalEntries) {
+            evictIdlePartitions();
+        }
+    }
+
+    /**
+     * Задача удалена - убираем её из истории всех клиентов
+     */
+    @Override
+    public void remove(int id) {
+        for (Partition partition : partitions.values()) {
+            synchronized (partition) {
+                if (!partition.evicted && partition.ring.remove(id) != HistoryRing.NONE) {
+                    totalEntries.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return история клиента из текущего контекста (актуальные версии задач, от старых к новым)
+     */
+    @Override
+    public List<Task> getHistory() {
+        IntFunction<Task> resolver = this.resolver;
+        if (resolver == null) {
+            throw new IllegalStateException("История не подключена к менеджеру задач");
+        }
+        Partition partition = partitions.get(HistoryContext.current());
+        if (partition == null) {
+            return new ArrayList<>();
+        }
+
+        int[] ids;
+        synchronized (partition) {
+            ids = new int[partition.ring.size()];
+            int[] position = {0};
+            partition.ring.forEachSlot(slot -> ids[position[0]++] = partition.ring.idAt(slot));
+            partition.lastAccess = clock.incrementAndGet();
+        }
+
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = resolver.apply(id);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Удаляет самые давние разделы, пока число разделов и записей не опустится до 90% лимитов.
+     * Если удалением уже занят другой поток, текущий не ждёт.
+     */
+    private void evictIdlePartitions() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int partitionTarget = Math.max(1, maxPartitions - maxPartitions / 10);
+            int entryTarget = maxTotalEntries - maxTotalEntries / 10;
+            if (partitions.size() <= partitionTarget && totalEntries.get() <= entryTarget) {
+                return;
+            }
+
+            // Время обращения фиксируем до сортировки: во время неё разделы продолжают использоваться
+            List<Candidate> byAge = new ArrayList<>(partitions.size());
+            partitions.forEach((clientId, partition) -> byAge.add(new Candidate(clientId, partition)));
+            byAge.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+            for (Candidate candidate : byAge) {
+                if (partitions.size() <= partitionTarget && totalEntries.get() <= entryTarget) {
+                    break;
+                }
+                synchronized (candidate.partition) {
+                    candidate.partition.evicted = true;
+                    totalEntries.addAndGet(-candidate.partition.ring.size());
+                }
+                partitions.remove(candidate.clientId, candidate.partition);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
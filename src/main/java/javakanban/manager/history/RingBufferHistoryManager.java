@@ -0,0 +1,66 @@
+package javakanban.manager.history;
+
+import javakanban.models.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * История просмотров ограниченной ёмкости.
+ * Порядок просмотров хранится в {@link HistoryRing} на массивах, поэтому просмотр не создаёт узлов,
+ * а при заполнении самая старая запись вытесняется за O(1).
+ * Как и {@link InMemoryHistoryManager}, хранит копию задачи на момент просмотра.
+ */
+public class RingBufferHistoryManager implements HistoryManager {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final HistoryRing ring;
+    private Task[] tasks;
+
+    public RingBufferHistoryManager() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity максимальное число задач в истории
+     */
+    public RingBufferHistoryManager(int capacity) {
+        this.ring = new HistoryRing(capacity);
+        this.tasks = new Task[ring.allocatedSlots()];
+    }
+
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) return;
+
+        int slot = ring.touch(task.getId());
+        if (slot >= tasks.length) {
+            tasks = Arrays.copyOf(tasks, ring.allocatedSlots());
+        }
+        tasks[slot] = task.copy();
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = ring.remove(id);
+        if (slot != HistoryRing.NONE) {
+            tasks[slot] = null;
+        }
+    }
+
+    /**
+     * @return задачи в порядке просмотра (от старых к новым)
+     */
+    @Override
+    public List<Task> getHistory() {
+        List<Task> result = new ArrayList<>(ring.size());
+        ring.forEachSlot(slot -> result.add(tasks[slot]));
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package javakanban.manager.task;
+
+/**
+ * Получает уведомления об изменении сущностей доски.
+ * Вызывается сразу после изменения, пока менеджер ещё держит свои блокировки,
+ * поэтому обработчик должен быть быстрым и не обращаться к менеджеру.
+ */
+@FunctionalInterface
+public interface BoardChangeListener {
+
+    /**
+     * Id, означающий, что изменился (например, очищен) весь набор данных
+     */
+    int ALL = -1;
+
+    /**
+     * @param collection набор данных, к которому относится сущность
+     * @param id         id созданной, изменённой или удалённой сущности либо {@link #ALL}
+     */
+    void onChange(BoardCollection collection, int id);
+}
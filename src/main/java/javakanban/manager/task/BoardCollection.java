@@ -0,0 +1,18 @@
+package javakanban.manager.task;
+
+/**
+ * Наборы данных доски, у каждого из которых менеджер ведёт свой номер версии
+ */
+public enum BoardCollection {
+    TASKS,
+    EPICS,
+    SUBTASKS,
+    /**
+     * Список задач по приоритету
+     */
+    PRIORITIZED,
+    /**
+     * История просмотров (общая версия для всех клиентов)
+     */
+    HISTORY
+}
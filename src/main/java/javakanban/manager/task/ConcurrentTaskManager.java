@@ -0,0 +1,353 @@
+package javakanban.manager.task;
+
+import javakanban.exceptions.NotFoundException;
+import javakanban.manager.history.ConcurrentHistoryManager;
+import javakanban.manager.history.HistoryManager;
+import javakanban.models.Conflict;
+import javakanban.models.Epic;
+import javakanban.models.Page;
+import javakanban.models.Subtask;
+import javakanban.models.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Потокобезопасный менеджер задач для многопоточного HTTP-сервера.
+ * Каждое хранилище (задачи, подзадачи, эпики) и временной индекс защищены своим StampedLock,
+ * поэтому, например, операции с задачами не блокируют операции с эпиками.
+ * Чтение по id идёт без блокировки (оптимистичное чтение с проверкой штампа).
+ * Блокировки всегда захватываются в порядке: эпики -> подзадачи -> задачи -> расписание.
+ * Методы чтения возвращают копии, чтобы вызывающий код не видел изменений из других потоков.
+ * Обычная история защищается общей блокировкой; {@link ConcurrentHistoryManager}
+ * (например, асинхронная история) используется как есть.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+
+    private final StampedLock epicsLock = new StampedLock();
+    private final StampedLock subtasksLock = new StampedLock();
+    private final StampedLock tasksLock = new StampedLock();
+    private final StampedLock scheduleLock = new StampedLock();
+
+    private final AtomicInteger idAllocator = new AtomicInteger();
+
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        super(historyManager instanceof ConcurrentHistoryManager
+                ? historyManager
+                : new SynchronizedHistoryManager(historyManager));
+    }
+
+    @Override
+    protected int nextId() {
+        return idAllocator.incrementAndGet();
+    }
+
+    //методы для Task
+    @Override
+    public List<Task> getAllTasks() {
+        return read(tasksLock, super::getAllTasks);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(super::deleteAllTasks, tasksLock, scheduleLock);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Task task = readOptimistically(tasksLock, () -> copyOf(tasks.get(id)));
+        if (task == null) {
+            throw new NotFoundException("Задача с ID " + id + " не найдена");
+        }
+        recordViewIfPresent(tasksLock, tasks::containsKey, task);
+        return task;
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        return write(() -> super.createTask(task), tasksLock, scheduleLock);
+    }
+
+    @Override
+    public Task updateTask(Task task) {
+        return write(() -> super.updateTask(task), tasksLock, scheduleLock);
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        write(() -> super.deleteTaskById(id), tasksLock, scheduleLock);
+    }
+
+    //методы для Epic
+    @Override
+    public List<Epic> getAllEpics() {
+        return read(epicsLock, () -> epics.values().stream()
+                .map(Epic::copy)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(super::deleteAllEpics, epicsLock, subtasksLock, scheduleLock);
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        Epic epic = readOptimistically(epicsLock, () -> copyOf(epics.get(id)));
+        if (epic == null) {
+            throw new NotFoundException("Эпик с ID " + id + " не найдена");
+        }
+        recordViewIfPresent(epicsLock, epics::containsKey, epic);
+        return epic;
+    }
+
+    @Override
+    public boolean containsEpic(int id) {
+        return readOptimistically(epicsLock, () -> super.containsEpic(id));
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        return write(() -> super.createEpic(epic), epicsLock);
+    }
+
+    @Override
+    public Epic updateEpic(Epic epic) {
+        return write(() -> super.updateEpic(epic), epicsLock);
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        write(() -> super.deleteEpicById(id), epicsLock, subtasksLock, scheduleLock);
+    }
+
+    //методы для Subtask
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return read(subtasksLock, () -> subtasks.values().stream()
+                .map(Subtask::copy)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(super::deleteAllSubtasks, epicsLock, subtasksLock, scheduleLock);
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        Subtask subtask = readOptimistically(subtasksLock, () -> copyOf(subtasks.get(id)));
+        if (subtask == null) {
+            throw new NotFoundException("Подзадача с ID " + id + " не найдена");
+        }
+        recordViewIfPresent(subtasksLock, subtasks::containsKey, subtask);
+        return subtask;
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        return write(() -> super.createSubtask(subtask), epicsLock, subtasksLock, scheduleLock);
+    }
+
+    @Override
+    public Subtask updateSubtask(Subtask subtask) {
+        return write(() -> super.updateSubtask(subtask), epicsLock, subtasksLock, scheduleLock);
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        write(() -> super.deleteSubtaskById(id), epicsLock, subtasksLock, scheduleLock);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId) {
+        long epicsStamp = epicsLock.readLock();
+        try {
+            return read(subtasksLock, () -> super.getSubtasksByEpic(epicId).stream()
+                    .map(Subtask::copy)
+                    .collect(Collectors.toList()));
+        } finally {
+            epicsLock.unlockRead(epicsStamp);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> snapshot = currentPrioritizedSnapshot();
+        return snapshot != null ? snapshot : read(scheduleLock, super::getPrioritizedTasks);
+    }
+
+    @Override
+    public Page<Task> getTasks(int afterId, int limit) {
+        return read(tasksLock, () -> super.getTasks(afterId, limit));
+    }
+
+    @Override
+    public Page<Epic> getEpics(int afterId, int limit) {
+        return read(epicsLock, () -> super.getEpics(afterId, limit));
+    }
+
+    @Override
+    public Page<Subtask> getSubtasks(int afterId, int limit) {
+        return read(subtasksLock, () -> super.getSubtasks(afterId, limit));
+    }
+
+    @Override
+    public Page<Task> getPrioritizedTasks(String cursor, int limit) {
+        return read(scheduleLock, () -> super.getPrioritizedTasks(cursor, limit));
+    }
+
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return read(scheduleLock, () -> super.getTasksBetween(from, to, limit));
+    }
+
+    @Override
+    public List<Task> getTasksStartingAfter(LocalDateTime time, int limit) {
+        return read(scheduleLock, () -> super.getTasksStartingAfter(time, limit));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        return read(scheduleLock, () -> super.findFreeSlot(duration, notBefore));
+    }
+
+    @Override
+    public List<Task> autoSchedule(List<Integer> ids, LocalDateTime notBefore) {
+        return write(() -> super.autoSchedule(ids, notBefore), epicsLock, subtasksLock, tasksLock, scheduleLock);
+    }
+
+    @Override
+    public List<Conflict> findConflicts() {
+        return read(scheduleLock, super::findConflicts);
+    }
+
+    @Override
+    protected Task findForHistory(int id) {
+        Task task = readOptimistically(tasksLock, () -> copyOf(tasks.get(id)));
+        if (task == null) {
+            task = readOptimistically(epicsLock, () -> copyOf(epics.get(id)));
+        }
+        if (task == null) {
+            task = readOptimistically(subtasksLock, () -> copyOf(subtasks.get(id)));
+        }
+        return task;
+    }
+
+    /**
+     * Записывает просмотр под блокировкой чтения хранилища. Удаление ждёт, пока она отпущена,
+     * поэтому не может вклиниться между проверкой и записью и оставить удалённую задачу в истории.
+     * Если задачу удалили сразу после чтения, просмотр не записывается: удаление всё равно убрало бы его.
+     */
+    private void recordViewIfPresent(StampedLock lock, IntPredicate present, Task task) {
+        read(lock, () -> {
+            if (present.test(task.getId())) {
+                recordView(task);
+            }
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> T copyOf(T task) {
+        return task != null ? (T) task.copy() : null;
+    }
+
+    /**
+     * Оптимистичное чтение: выполняется без блокировки и повторяется под блокировкой чтения,
+     * если за это время была запись. Чтение, попавшее на запись, может упасть на
+     * несогласованных данных - такой результат тоже отбрасывается.
+     */
+    private static <T> T readOptimistically(StampedLock lock, Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException ignored) {
+                // повторим под блокировкой
+            }
+        }
+        return read(lock, reader);
+    }
+
+    private static <T> T read(StampedLock lock, Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static <T> T write(Supplier<T> action, StampedLock... locks) {
+        long[] stamps = new long[locks.length];
+        for (int i = 0; i < locks.length; i++) {
+            stamps[i] = locks[i].writeLock();
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlockWrite(stamps[i]);
+            }
+        }
+    }
+
+    private static void write(Runnable action, StampedLock... locks) {
+        write(() -> {
+            action.run();
+            return null;
+        }, locks);
+    }
+
+    /**
+     * История общая для всех хранилищ, поэтому все обращения к ней сериализуются
+     */
+    private static class SynchronizedHistoryManager implements HistoryManager {
+        private final HistoryManager delegate;
+
+        SynchronizedHistoryManager(HistoryManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void add(Task task) {
+            delegate.add(task);
+        }
+
+        @Override
+        public synchronized void remove(int id) {
+            delegate.remove(id);
+        }
+
+        @Override
+        public synchronized List<Task> getHistory() {
+            return delegate.getHistory();
+        }
+
+        @Override
+        public void attach(IntFunction<Task> resolver) {
+            delegate.attach(resolver);
+        }
+
+        @Override
+        public boolean needsTaskSnapshot() {
+            return delegate.needsTaskSnapshot();
+        }
+
+        @Override
+        public void flush() {
+            delegate.flush();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package javakanban.manager.task;
+
+import javakanban.models.Conflict;
+import javakanban.models.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Поиск пересечений по всей доске одним проходом по задачам, упорядоченным по времени начала.
+ * Задачи объединяются в группы: задача попадает в текущую группу, если пересекается хотя бы
+ * с одной её задачей, иначе открывает новую. Достаточно помнить наибольшее время окончания группы,
+ * поэтому проход линейный, а вместе с сортировкой - O(n log n).
+ * Пересечение понимается так же, как при проверке на запись: интервалы полуоткрытые,
+ * задача нулевой длительности пересекается только с задачами, которые идут в момент её начала.
+ */
+public final class ConflictDetector {
+
+    private ConflictDetector() {
+    }
+
+    /**
+     * @param sortedTasks задачи по возрастанию (startTime, id); обход заканчивается на первой задаче без времени
+     * @return группы из двух и более задач по возрастанию времени начала; задачи в группах - копии
+     */
+    public static List<Conflict> findConflicts(Iterable<? extends Task> sortedTasks) {
+        List<Conflict> conflicts = new ArrayList<>();
+        forEachConflict(sortedTasks, conflicts::add);
+        return conflicts;
+    }
+
+    /**
+     * Передаёт группы по одной, как только группа закончилась: в памяти держится только текущая группа
+     *
+     * @param sortedTasks задачи по возрастанию (startTime, id); обход заканчивается на первой задаче без времени
+     * @param consumer    получает группы из двух и более задач по возрастанию времени начала
+     */
+    public static void forEachConflict(Iterable<? extends Task> sortedTasks, Consumer<? super Conflict> consumer) {
+        List<Task> group = new ArrayList<>();
+        LocalDateTime groupEnd = null;
+        // Для задач нулевой длительности: наибольшее окончание среди задач группы, начавшихся строго раньше
+        LocalDateTime currentStart = null;
+        LocalDateTime currentStartEnd = null;
+        LocalDateTime earlierEnd = null;
+
+        for (Task task : sortedTasks) {
+            LocalDateTime start = task.getStartTime();
+            if (start == null) {
+                break;
+            }
+            LocalDateTime end = task.getEndTime();
+            if (currentStart == null || start.isAfter(currentStart)) {
+                earlierEnd = later(earlierEnd, currentStartEnd);
+                currentStart = start;
+                currentStartEnd = null;
+            }
+
+            boolean instant = !end.isAfter(start);
+            boolean overlaps = instant
+                    ? earlierEnd != null && start.isBefore(earlierEnd)
+                    : groupEnd != null && start.isBefore(groupEnd);
+            if (!overlaps) {
+                // Мгновенная задача не пересекается с теми, что начнутся позже, - группу не закрываем
+                if (instant) {
+                    continue;
+                }
+                emit(consumer, group, groupEnd);
+                group.clear();
+                groupEnd = null;
+            }
+            group.add(task);
+            groupEnd = later(groupEnd, end);
+            currentStartEnd = later(currentStartEnd, end);
+        }
+        emit(consumer, group, groupEnd);
+    }
+
+    private static void emit(Consumer<? super Conflict> consumer, List<Task> group, LocalDateTime groupEnd) {
+        if (group.size() > 1) {
+            List<Task> copies = new ArrayList<>(group.size());
+            for (Task task : group) {
+                copies.add(task.copy());
+            }
+            consumer.accept(new Conflict(group.get(0).getStartTime(), groupEnd, copies));
+        }
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        return second != null && second.isAfter(first) ? second : first;
+    }
+}
@@ -0,0 +1,20 @@
+package javakanban.manager.task;
+
+/**
+ * Когда запись журнала считается сохранённой и вызывающий код может продолжить работу
+ */
+public enum Durability {
+    /**
+     * Каждая запись пишется и сбрасывается на диск (fsync) до возврата из метода
+     */
+    SYNC,
+    /**
+     * Групповая фиксация: записи, пришедшие в пределах короткого окна (или до заполнения пакета),
+     * пишутся одним вызовом и одним fsync; вызывающий ждёт, пока его пакет не окажется на диске
+     */
+    GROUP_COMMIT,
+    /**
+     * Записи сбрасываются на диск фоновым потоком, вызывающий не ждёт
+     */
+    ASYNC
+}
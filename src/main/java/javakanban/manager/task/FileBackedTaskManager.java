@@ -4,83 +4,147 @@ import javakanban.exceptions.ManagerSaveException;
 import javakanban.manager.Managers;
 import javakanban.manager.history.HistoryManager;
 import javakanban.models.*;
+import javakanban.utils.BinarySnapshotCodec;
 import javakanban.utils.CsvConverter;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-
-public class FileBackedTaskManager extends InMemoryTaskManager {
+/**
+ * Менеджер задач с сохранением в файл.
+ * Изменения в памяти и постановка записи в журнал выполняются под монитором менеджера,
+ * а ожидание сброса журнала на диск (режим {@link Durability#GROUP_COMMIT}) - уже вне его,
+ * чтобы параллельные изменения успели попасть в тот же пакет.
+ */
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
 
     private final File file;
+    private final StorageSettings settings;
+    private final TaskJournal journal;
+    private LoadStats loadStats = LoadStats.EMPTY;
 
-    private FileBackedTaskManager(HistoryManager historyManager, File file) {
+    private FileBackedTaskManager(HistoryManager historyManager, File file, StorageSettings settings) {
         super(historyManager);
         this.file = file;
+        this.settings = settings;
+        this.journal = new TaskJournal(new File(file.getPath() + ".log"), settings);
     }
 
     protected void save() {
-        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8)) {
-            writer.write("id,type,name,status,description,duration,startTime,epic\n");
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeSnapshot(channel, settings.getSnapshotFormat());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения в файл", e);
+        }
+    }
 
-            for (Task task : getAllTasks()) {
-                writer.write(CsvConverter.toString(task) + "\n");
-            }
-            for (Epic epic : getAllEpics()) {
-                writer.write(CsvConverter.toString(epic) + "\n");
-            }
-            for (Subtask subtask : getAllSubtasks()) {
-                writer.write(CsvConverter.toString(subtask) + "\n");
+    /**
+     * Выгружает все задачи в CSV независимо от формата, в котором менеджер хранит снимок
+     *
+     * @param target файл для экспорта
+     */
+    public synchronized void exportCsv(File target) {
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeSnapshot(channel, SnapshotFormat.CSV);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка экспорта в CSV", e);
+        }
+    }
+
+    private void writeSnapshot(FileChannel channel, SnapshotFormat format) throws IOException {
+        if (format == SnapshotFormat.BINARY) {
+            List<Task> all = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+            all.addAll(tasks.values());
+            all.addAll(epics.values());
+            all.addAll(subtasks.values());
+            BinarySnapshotCodec.write(channel, all);
+            return;
+        }
+
+        // Writer не закрываем: он закрыл бы и канал, которым владеет вызывающий
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+        writer.write(CsvConverter.getHeader() + "\n");
+
+        for (Task task : tasks.values()) {
+            writer.write(CsvConverter.toString(task) + "\n");
+        }
+        for (Epic epic : epics.values()) {
+            writer.write(CsvConverter.toString(epic) + "\n");
+        }
+        for (Subtask subtask : subtasks.values()) {
+            writer.write(CsvConverter.toString(subtask) + "\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Сжимает журнал: записывает полный снимок во временный файл, атомарно заменяет им основной файл
+     * и только после этого очищает журнал
+     */
+    protected void compact() {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeSnapshot(channel, settings.getSnapshotFormat());
+                channel.force(true);
             }
+            Files.move(tempFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal.reset();
         } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка сохранения в файл", e);
+            throw new ManagerSaveException("Ошибка сжатия журнала в файл", e);
         }
     }
 
+    /**
+     * Принудительно записывает полный снимок и очищает журнал
+     */
+    public synchronized void checkpoint() {
+        compact();
+    }
+
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file);
+        return loadFromFile(file, StorageSettings.defaults());
+    }
 
-        if (!file.exists() || file.length() == 0) {
-            return manager;
-        }
+    public static FileBackedTaskManager loadFromFile(File file, StorageSettings settings) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file, settings);
 
         try {
-            String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
-            String[] lines = content.split("\n");
-
-            for (int i = 1; i < lines.length; i++) {
-                String line = lines[i].trim();
-                if (line.isEmpty()) continue;
-
-                Task task = CsvConverter.fromString(line);
-
-                switch (task.getType()) {
-                    case EPIC:
-                        manager.epics.put(task.getId(), (Epic) task);
-                        break;
-                    case SUBTASK:
-                        manager.subtasks.put(task.getId(), (Subtask) task);
-                        break;
-                    case TASK:
-                        manager.tasks.put(task.getId(), task);
-                        break;
-                }
+            manager.loadStats = SnapshotLoader.load(file, manager::putLoaded);
 
-                if (task.getId() > manager.idCounter) {
-                    manager.idCounter = task.getId();
-                }
-            }
+            int replayed = manager.journal.replay(manager::applyJournalRecord);
 
+            // Подзадачи удалённых эпиков остаются в журнале без своего эпика
+            List<Integer> orphans = new ArrayList<>();
             for (Subtask subtask : manager.subtasks.values()) {
-                Epic epic = manager.epics.get(subtask.getEpicId());
-                if (epic != null) {
-                    epic.addSubtaskId(subtask.getId());
+                if (!manager.epics.containsKey(subtask.getEpicId())) {
+                    orphans.add(subtask.getId());
                 }
             }
+            orphans.forEach(manager.subtasks::remove);
+            manager.rebuildIndexes();
 
+            if (replayed > 0) {
+                manager.compact();
+            }
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка загрузки из файла", e);
         }
@@ -88,81 +152,322 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return manager;
     }
 
+    private void putLoaded(Task task) {
+        switch (task.getType()) {
+            case EPIC:
+                epics.put(task.getId(), (Epic) task);
+                break;
+            case SUBTASK:
+                subtasks.put(task.getId(), (Subtask) task);
+                break;
+            case TASK:
+                tasks.put(task.getId(), task);
+                break;
+        }
+
+        if (task.getId() > idCounter) {
+            idCounter = task.getId();
+        }
+    }
+
+    private void applyJournalRecord(String record) {
+        int separator = record.indexOf(',');
+        String operation = record.substring(0, separator);
+        String payload = record.substring(separator + 1);
+
+        switch (operation) {
+            case TaskJournal.PUT_ESCAPED:
+                putLoaded(CsvConverter.fromEscapedString(payload));
+                break;
+            case TaskJournal.PUT:
+                putLoaded(CsvConverter.fromString(payload));
+                break;
+            case TaskJournal.DELETE:
+                int idSeparator = payload.indexOf(',');
+                TaskType type = TaskType.valueOf(payload.substring(0, idSeparator));
+                int id = Integer.parseInt(payload.substring(idSeparator + 1));
+                switch (type) {
+                    case TASK -> tasks.remove(id);
+                    case SUBTASK -> subtasks.remove(id);
+                    case EPIC -> epics.remove(id);
+                }
+                break;
+            case TaskJournal.CLEAR:
+                switch (TaskType.valueOf(payload)) {
+                    case TASK -> tasks.clear();
+                    case SUBTASK -> subtasks.clear();
+                    case EPIC -> {
+                        epics.clear();
+                        subtasks.clear();
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестная запись журнала: " + record);
+        }
+    }
+
+    private long persistPut(Task task) {
+        return persist(() -> TaskJournal.PUT_ESCAPED + "," + CsvConverter.toEscapedString(task));
+    }
+
+    /**
+     * Все изменённые задачи одним изменением: в режиме снимка файл сохраняется один раз
+     */
+    private long persistPuts(List<? extends Task> changed) {
+        if (settings.getMode() == PersistenceMode.SNAPSHOT) {
+            save();
+            return 0;
+        }
+        long seq = 0;
+        for (Task task : changed) {
+            seq = persistPut(task);
+        }
+        return seq;
+    }
+
+    private long persistDelete(TaskType type, int id) {
+        return persist(() -> TaskJournal.DELETE + "," + type + "," + id);
+    }
+
+    private long persistClear(TaskType type) {
+        return persist(() -> TaskJournal.CLEAR + "," + type);
+    }
+
+    /**
+     * @return номер записи журнала, сохранность которой нужно дождаться, или 0
+     */
+    private long persist(Supplier<String> record) {
+        if (settings.getMode() == PersistenceMode.SNAPSHOT) {
+            save();
+            return 0;
+        }
+        long seq;
+        try {
+            seq = journal.append(record.get());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал", e);
+        }
+        if (journal.size() >= settings.getCompactionThreshold()) {
+            compact();
+        }
+        return seq;
+    }
+
+    /**
+     * Выполняет изменение и ставит его запись в журнал под монитором менеджера,
+     * затем вне монитора ждёт, пока запись станет сохранной
+     */
+    private <T> T commit(Supplier<T> mutation, Function<T, Long> persistence) {
+        T result;
+        long seq;
+        synchronized (this) {
+            result = mutation.get();
+            seq = persistence.apply(result);
+        }
+        if (seq > 0) {
+            try {
+                journal.awaitDurable(seq);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка записи в журнал", e);
+            }
+        }
+        return result;
+    }
+
+    private void commit(Runnable mutation, Supplier<Long> persistence) {
+        commit(() -> {
+            mutation.run();
+            return null;
+        }, ignored -> persistence.get());
+    }
+
+    /**
+     * Дожидается сброса журнала на диск и закрывает его
+     */
+    @Override
+    public void close() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка закрытия журнала", e);
+        }
+    }
+
+    /**
+     * @return статистика последней загрузки снимка из файла
+     */
+    public LoadStats getLoadStats() {
+        return loadStats;
+    }
+
+    TaskJournal journal() {
+        return journal;
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return super.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getAllTasks() {
+        return super.getAllTasks();
+    }
+
+    @Override
+    public synchronized Task getTaskById(int id) {
+        return super.getTaskById(id);
+    }
+
+    @Override
+    public synchronized List<Epic> getAllEpics() {
+        return super.getAllEpics();
+    }
+
+    @Override
+    public synchronized Epic getEpicById(int id) {
+        return super.getEpicById(id);
+    }
+
+    @Override
+    public synchronized boolean containsEpic(int id) {
+        return super.containsEpic(id);
+    }
+
+    @Override
+    public synchronized List<Subtask> getAllSubtasks() {
+        return super.getAllSubtasks();
+    }
+
+    @Override
+    public synchronized Subtask getSubtaskById(int id) {
+        return super.getSubtaskById(id);
+    }
+
+    @Override
+    public synchronized List<Subtask> getSubtasksByEpic(int epicId) {
+        return super.getSubtasksByEpic(epicId);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> snapshot = currentPrioritizedSnapshot();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            return super.getPrioritizedTasks();
+        }
+    }
+
+    @Override
+    public synchronized Page<Task> getTasks(int afterId, int limit) {
+        return super.getTasks(afterId, limit);
+    }
+
+    @Override
+    public synchronized Page<Epic> getEpics(int afterId, int limit) {
+        return super.getEpics(afterId, limit);
+    }
+
+    @Override
+    public synchronized Page<Subtask> getSubtasks(int afterId, int limit) {
+        return super.getSubtasks(afterId, limit);
+    }
+
+    @Override
+    public synchronized Page<Task> getPrioritizedTasks(String cursor, int limit) {
+        return super.getPrioritizedTasks(cursor, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return super.getTasksBetween(from, to, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getTasksStartingAfter(LocalDateTime time, int limit) {
+        return super.getTasksStartingAfter(time, limit);
+    }
+
+    @Override
+    public synchronized List<ViewCount> getTopViewed(int k) {
+        return super.getTopViewed(k);
+    }
+
+    @Override
+    public synchronized LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        return super.findFreeSlot(duration, notBefore);
+    }
+
+    @Override
+    public synchronized List<Conflict> findConflicts() {
+        return super.findConflicts();
+    }
+
+    @Override
+    public List<Task> autoSchedule(List<Integer> ids, LocalDateTime notBefore) {
+        return commit(() -> super.autoSchedule(ids, notBefore), this::persistPuts);
+    }
+
     @Override
     public Task createTask(Task task) {
-        Task result = super.createTask(task);
-        save();
-        return result;
+        return commit(() -> super.createTask(task), this::persistPut);
     }
 
     @Override
     public Task updateTask(Task task) {
-        Task result = super.updateTask(task);
-        save();
-        return result;
+        return commit(() -> super.updateTask(task), this::persistPut);
     }
 
     @Override
     public void deleteTaskById(int id) {
-        super.deleteTaskById(id);
-        save();
+        commit(() -> super.deleteTaskById(id), () -> persistDelete(TaskType.TASK, id));
     }
 
     @Override
     public void deleteAllEpics() {
-        super.deleteAllEpics();
-        save();
+        commit(super::deleteAllEpics, () -> persistClear(TaskType.EPIC));
     }
 
     @Override
     public Epic createEpic(Epic epic) {
-        Epic result = super.createEpic(epic);
-        save();
-        return result;
+        return commit(() -> super.createEpic(epic), this::persistPut);
     }
 
     @Override
     public Epic updateEpic(Epic epic) {
-        super.updateEpic(epic);
-        save();
-        return epic;
+        return commit(() -> super.updateEpic(epic), this::persistPut);
     }
 
     @Override
     public void deleteEpicById(int id) {
-        super.deleteEpicById(id);
-        save();
+        commit(() -> super.deleteEpicById(id), () -> persistDelete(TaskType.EPIC, id));
     }
 
     @Override
     public void deleteAllSubtasks() {
-        super.deleteAllSubtasks();
-        save();
+        commit(super::deleteAllSubtasks, () -> persistClear(TaskType.SUBTASK));
     }
 
     @Override
     public Subtask createSubtask(Subtask subtask) {
-        Subtask result = super.createSubtask(subtask);
-        save();
-        return result;
+        return commit(() -> super.createSubtask(subtask), this::persistPut);
     }
 
     @Override
     public Subtask updateSubtask(Subtask subtask) {
-        super.updateSubtask(subtask);
-        save();
-        return subtask;
+        return commit(() -> super.updateSubtask(subtask), this::persistPut);
     }
 
     @Override
     public void deleteSubtaskById(int id) {
-        super.deleteSubtaskById(id);
-        save();
+        commit(() -> super.deleteSubtaskById(id), () -> persistDelete(TaskType.SUBTASK, id));
     }
 
     @Override
     public void deleteAllTasks() {
-        super.deleteAllTasks();
-        save();
+        commit(super::deleteAllTasks, () -> persistClear(TaskType.TASK));
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,38 @@
 package javakanban.manager.task;
 
 import javakanban.exceptions.NotFoundException;
+import javakanban.logging.Logger;
+import javakanban.manager.history.HeavyHitters;
 import javakanban.manager.history.HistoryManager;
 import javakanban.models.*;
+import javakanban.utils.IntObjectMap;
+import javakanban.utils.SortedIntSet;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.Collectors;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected Map<Integer, Task> tasks = new HashMap<>();
-    protected Map<Integer, Subtask> subtasks = new HashMap<>();
-    protected Map<Integer, Epic> epics = new HashMap<>();
+    private static final Logger LOG = Logger.getLogger(InMemoryTaskManager.class);
+
+    protected IntObjectMap<Task> tasks = new IntObjectMap<>();
+    protected IntObjectMap<Subtask> subtasks = new IntObjectMap<>();
+    protected IntObjectMap<Epic> epics = new IntObjectMap<>();
+    // Id каждого хранилища по возрастанию - для постраничного обхода
+    private final SortedIntSet taskIds = new SortedIntSet();
+    private final SortedIntSet subtaskIds = new SortedIntSet();
+    private final SortedIntSet epicIds = new SortedIntSet();
     private final HistoryManager historyManager;
+    private final HeavyHitters viewCounter = new HeavyHitters();
+    private final AtomicLongArray versions = new AtomicLongArray(BoardCollection.values().length);
+    private final List<BoardChangeListener> changeListeners = new CopyOnWriteArrayList<>();
     protected int idCounter = 0;
 
-    private final Set<Task> prioritizedTasks = new TreeSet<>((task1, task2) -> {
+    private static final Comparator<Task> PRIORITY_ORDER = (task1, task2) -> {
         if (task1.getStartTime() == null && task2.getStartTime() == null) {
             return Integer.compare(task1.getId(), task2.getId());
         }
@@ -25,10 +41,46 @@ public class InMemoryTaskManager implements TaskManager {
 
         int timeComparison = task1.getStartTime().compareTo(task2.getStartTime());
         return timeComparison != 0 ? timeComparison : Integer.compare(task1.getId(), task2.getId());
-    });
+    };
+
+    // Начиная с этого числа записей перестроение после загрузки идёт параллельно
+    private static final int PARALLEL_REBUILD_THRESHOLD = 10_000;
+
+    private final NavigableSet<Task> prioritizedTasks = new TreeSet<>(PRIORITY_ORDER);
+
+    private final TimeIntervalIndex timeIndex = new TimeIntervalIndex();
+
+    // Последний построенный снимок порядка приоритета
+    private volatile PrioritizedSnapshot prioritizedSnapshot;
+
+    /**
+     * Неизменяемый список задач по приоритету и версия PRIORITIZED, на которой он построен.
+     * Общим для читателей является только порядок: сами задачи хранятся внутри и при каждом
+     * обращении к элементу отдаются копией, поэтому изменить снимок через полученную задачу нельзя.
+     */
+    private static class PrioritizedSnapshot extends AbstractList<Task> implements RandomAccess {
+        final long version;
+        private final Task[] tasks;
+
+        PrioritizedSnapshot(long version, Task[] tasks) {
+            this.version = version;
+            this.tasks = tasks;
+        }
+
+        @Override
+        public Task get(int index) {
+            return tasks[index].copy();
+        }
+
+        @Override
+        public int size() {
+            return tasks.length;
+        }
+    }
 
     public InMemoryTaskManager(HistoryManager historyManager) {
         this.historyManager = historyManager;
+        historyManager.attach(this::findForHistory);
     }
 
     @Override
@@ -47,11 +99,15 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteAllTasks() {
 
-        for (Integer id : tasks.keySet()) {
+        tasks.forEachKey(id -> {
             historyManager.remove(id);
-        }
+            timeIndex.remove(id);
+        });
         tasks.clear();
+        taskIds.clear();
         prioritizedTasks.removeIf(task -> task.getType() == TaskType.TASK);
+        changed(BoardCollection.TASKS, BoardCollection.PRIORITIZED, BoardCollection.HISTORY);
+        notifyChanged(BoardCollection.TASKS, BoardChangeListener.ALL);
     }
 
     @Override
@@ -60,16 +116,19 @@ public class InMemoryTaskManager implements TaskManager {
         if (task == null) {
             throw new NotFoundException("Задача с ID " + id + " не найдена");
         }
-        historyManager.add(task);
+        recordView(task);
         return task.copy();
     }
 
     @Override
     public Task createTask(Task task) {
         validateNoTimeOverlap(task);
-        task.setId(++idCounter);
+        task.setId(nextId());
         tasks.put(task.getId(), task);
-        prioritizedTasks.add(task);
+        taskIds.add(task.getId());
+        addPrioritized(task);
+        changed(BoardCollection.TASKS, BoardCollection.PRIORITIZED);
+        notifyChanged(BoardCollection.TASKS, task.getId());
         return task;
     }
 
@@ -80,13 +139,15 @@ public class InMemoryTaskManager implements TaskManager {
         }
         validateNoTimeOverlap(task);
         Task existing = tasks.get(task.getId());
-        prioritizedTasks.remove(existing);
+        removePrioritized(existing);
         existing.setName(task.getName());
         existing.setDescription(task.getDescription());
         existing.setStatus(task.getStatus());
         existing.setDuration(task.getDuration());
         existing.setStartTime(task.getStartTime());
-        prioritizedTasks.add(task);
+        addPrioritized(existing);
+        changed(BoardCollection.TASKS, BoardCollection.PRIORITIZED, BoardCollection.HISTORY);
+        notifyChanged(BoardCollection.TASKS, existing.getId());
         return existing;
     }
 
@@ -96,8 +157,11 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Задача с ID " + id + " не найдена");
         }
         Task task = tasks.remove(id);
-        prioritizedTasks.remove(task);
+        taskIds.remove(id);
+        removePrioritized(task);
         historyManager.remove(id);
+        changed(BoardCollection.TASKS, BoardCollection.PRIORITIZED, BoardCollection.HISTORY);
+        notifyChanged(BoardCollection.TASKS, id);
     }
 
     //методы для Epic
@@ -112,10 +176,17 @@ public class InMemoryTaskManager implements TaskManager {
             historyManager.remove(epic.getId());
             for (int subtaskId : epic.getSubtaskIds()) {
                 historyManager.remove(subtaskId);
+                timeIndex.remove(subtaskId);
             }
         }
         subtasks.clear();
         epics.clear();
+        subtaskIds.clear();
+        epicIds.clear();
+        prioritizedTasks.removeIf(task -> task.getType() == TaskType.SUBTASK);
+        changedAll();
+        notifyChanged(BoardCollection.EPICS, BoardChangeListener.ALL);
+        notifyChanged(BoardCollection.SUBTASKS, BoardChangeListener.ALL);
     }
 
     @Override
@@ -124,14 +195,22 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             throw new NotFoundException("Эпик с ID " + id + " не найдена");
         }
-        historyManager.add(epic);
+        recordView(epic);
         return epic;
     }
 
+    @Override
+    public boolean containsEpic(int id) {
+        return epics.containsKey(id);
+    }
+
     @Override
     public Epic createEpic(Epic epic) {
-        epic.setId(++idCounter);
+        epic.setId(nextId());
         epics.put(epic.getId(), epic);
+        epicIds.add(epic.getId());
+        changed(BoardCollection.EPICS);
+        notifyChanged(BoardCollection.EPICS, epic.getId());
         return epic;
     }
 
@@ -143,8 +222,8 @@ public class InMemoryTaskManager implements TaskManager {
         Epic existingEpic = epics.get(epic.getId());
         existingEpic.setName(epic.getName());
         existingEpic.setDescription(epic.getDescription());
-        updateEpicStatus(existingEpic.getId());
-        calculateEpicTimes(existingEpic, getSubtasksByEpic(existingEpic.getId()));
+        changed(BoardCollection.EPICS, BoardCollection.HISTORY);
+        notifyChanged(BoardCollection.EPICS, existingEpic.getId());
         return existingEpic;
     }
 
@@ -154,77 +233,24 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Эпик с ID " + id + " не найден");
         }
         Epic epic = epics.remove(id);
-        List<Integer> subtaskIds = epic.getSubtaskIds();
-        for (int subtaskId : subtaskIds) {
-            subtasks.remove(subtaskId);
+        epicIds.remove(id);
+        List<Integer> epicSubtaskIds = epic.getSubtaskIds();
+        for (int subtaskId : epicSubtaskIds) {
+            Subtask subtask = subtasks.remove(subtaskId);
+            subtaskIds.remove(subtaskId);
+            if (subtask != null) {
+                removePrioritized(subtask);
+            }
             historyManager.remove(subtaskId);
         }
         historyManager.remove(id);
-    }
-
-    //обновление статуса эпика
-    private void updateEpicStatus(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) return;
-
-        List<Subtask> subtasks = getSubtasksByEpic(epicId);
-
-        if (subtasks.isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
-            return;
-        }
-        boolean allNew = true;
-        boolean allDone = true;
-        for (Subtask subtask : subtasks) {
-            if (subtask.getStatus() != TaskStatus.NEW) {
-                allNew = false;
-            }
-            if (subtask.getStatus() != TaskStatus.DONE) {
-                allDone = false;
-            }
-        }
-        if (allDone) {
-            epic.setStatus(TaskStatus.DONE);
-        } else if (allNew) {
-            epic.setStatus(TaskStatus.NEW);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
+        changedAll();
+        notifyChanged(BoardCollection.EPICS, id);
+        for (int subtaskId : epicSubtaskIds) {
+            notifyChanged(BoardCollection.SUBTASKS, subtaskId);
         }
     }
 
-    private void calculateEpicTimes(Epic epic, List<Subtask> subtasks) {
-        if (subtasks.isEmpty()) {
-            epic.setDuration(Duration.ZERO);
-            return;
-        }
-
-        LocalDateTime earliestStart = null;
-        LocalDateTime latestEnd = null;
-        Duration totalDuration = Duration.ZERO;
-
-        for (Subtask subtask : subtasks) {
-            if (subtask.getStartTime() == null) continue;
-
-            if (earliestStart == null || subtask.getStartTime().isBefore(earliestStart)) {
-                earliestStart = subtask.getStartTime();
-            }
-
-            LocalDateTime subtaskEnd = subtask.getEndTime();
-            if (subtaskEnd != null) {
-                if (latestEnd == null || subtaskEnd.isAfter(latestEnd)) {
-                    latestEnd = subtaskEnd;
-                }
-            }
-
-            if (subtask.getDuration() != null) {
-                totalDuration = totalDuration.plus(subtask.getDuration());
-            }
-        }
-        epic.setStartTime(earliestStart);
-        epic.setEndTime(latestEnd);
-        epic.setDuration(totalDuration);
-    }
-
     @Override
     public List<Subtask> getAllSubtasks() {
         return new ArrayList<>(subtasks.values());
@@ -233,16 +259,19 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteAllSubtasks() {
 
-        for (Integer id : subtasks.keySet()) {
+        subtasks.forEachKey(id -> {
             historyManager.remove(id);
-        }
+            timeIndex.remove(id);
+        });
         subtasks.clear();
+        subtaskIds.clear();
         prioritizedTasks.removeIf(task -> task.getType() == TaskType.SUBTASK);
         for (Epic epic : epics.values()) {
-            epic.getSubtaskIds().clear();
-            updateEpicStatus(epic.getId());
-            calculateEpicTimes(epic, getSubtasksByEpic(epic.getId()));
+            epic.clearSubtasks();
         }
+        changedAll();
+        notifyChanged(BoardCollection.SUBTASKS, BoardChangeListener.ALL);
+        notifyChanged(BoardCollection.EPICS, BoardChangeListener.ALL);
     }
 
     @Override
@@ -251,7 +280,7 @@ public class InMemoryTaskManager implements TaskManager {
         if (subtask == null) {
             throw new NotFoundException("Подзадача с ID " + id + " не найдена");
         }
-        historyManager.add(subtask);
+        recordView(subtask);
         return subtask;
     }
 
@@ -263,15 +292,18 @@ public class InMemoryTaskManager implements TaskManager {
 
         validateNoTimeOverlap(subtask);
 
-        subtask.setId(++idCounter);
+        subtask.setId(nextId());
         subtasks.put(subtask.getId(), subtask);
+        subtaskIds.add(subtask.getId());
         if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
+            addPrioritized(subtask);
         }
         Epic epic = epics.get(subtask.getEpicId());
         epic.addSubtaskId(subtask.getId());
-        updateEpicStatus(epic.getId());
-        calculateEpicTimes(epic, getSubtasksByEpic(epic.getId()));
+        epic.applySubtask(subtask);
+        // Статус и сроки эпика зависят от подзадач, а эпик может быть в истории
+        changedAll();
+        notifySubtaskChanged(subtask);
         return subtask;
     }
 
@@ -283,7 +315,7 @@ public class InMemoryTaskManager implements TaskManager {
         validateNoTimeOverlap(subtask);
 
         Subtask existing = subtasks.get(subtask.getId());
-        prioritizedTasks.remove(existing);
+        removePrioritized(existing);
 
         existing.setName(subtask.getName());
         existing.setDescription(subtask.getDescription());
@@ -292,12 +324,14 @@ public class InMemoryTaskManager implements TaskManager {
         existing.setStartTime(subtask.getStartTime());
 
         if (existing.getStartTime() != null) {
-            prioritizedTasks.add(existing);
+            addPrioritized(existing);
         }
-        updateEpicStatus(subtask.getEpicId());
-
-        calculateEpicTimes(epics.get(subtask.getEpicId()),
-                getSubtasksByEpic(subtask.getEpicId()));
+        Epic epic = epics.get(existing.getEpicId());
+        if (epic != null) {
+            epic.applySubtask(existing);
+        }
+        changedAll();
+        notifySubtaskChanged(existing);
         return existing;
     }
 
@@ -307,16 +341,17 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Подзадача с ID " + id + " не найдена");
         }
         Subtask subtask = subtasks.remove(id);
-        prioritizedTasks.remove(subtask);
+        subtaskIds.remove(id);
         if (subtask != null) {
+            removePrioritized(subtask);
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
-                epic.getSubtaskIds().remove((Integer) id);
-                updateEpicStatus(epic.getId());
-                calculateEpicTimes(epic, getSubtasksByEpic(epic.getId()));
+                epic.removeSubtaskId(id);
             }
             historyManager.remove(id);
         }
+        changedAll();
+        notifySubtaskChanged(subtask);
     }
 
     @Override
@@ -331,56 +366,489 @@ public class InMemoryTaskManager implements TaskManager {
         return result;
     }
 
+    /**
+     * Снимок перестраивается при первом чтении после изменения расписания,
+     * а до следующего изменения все читатели получают один и тот же список без копирования всего порядка
+     */
     @Override
     public List<Task> getPrioritizedTasks() {
-        System.out.println("=== prioritizedTasks содержимое ===");
+        List<Task> current = currentPrioritizedSnapshot();
+        if (current != null) {
+            return current;
+        }
+        long version = versions.get(BoardCollection.PRIORITIZED.ordinal());
+        LOG.debug(this::describePrioritized);
+        Task[] tasks = new Task[prioritizedTasks.size()];
+        int index = 0;
         for (Task task : prioritizedTasks) {
-            System.out.println("Task " + task.getId() + ": " + task.getName() +
-                    ", startTime: " + task.getStartTime());
+            tasks[index++] = task.copy();
         }
-        System.out.println("Всего в prioritizedTasks: " + prioritizedTasks.size());
-        System.out.println("=== КОНЕЦ ===");
+        PrioritizedSnapshot snapshot = new PrioritizedSnapshot(version, tasks);
+        prioritizedSnapshot = snapshot;
+        return snapshot;
+    }
 
-        return new ArrayList<>(prioritizedTasks);
+    /**
+     * Снимок, построенный на текущей версии расписания, или null, если его нужно перестроить.
+     * Версия увеличивается только после изменения, поэтому совпавший снимок можно отдать
+     * без блокировок: он отражает все завершённые изменения.
+     */
+    protected List<Task> currentPrioritizedSnapshot() {
+        PrioritizedSnapshot snapshot = prioritizedSnapshot;
+        if (snapshot != null && snapshot.version == versions.get(BoardCollection.PRIORITIZED.ordinal())) {
+            return snapshot;
+        }
+        return null;
     }
 
-    private void validateTimeOverlap(Task task1, Task task2) {
-        if (task1.getStartTime() == null || task2.getStartTime() == null) {
-            return;
+    private String describePrioritized() {
+        StringBuilder description = new StringBuilder("prioritizedTasks, всего " + prioritizedTasks.size() + ":");
+        for (Task task : prioritizedTasks) {
+            description.append(System.lineSeparator()).append("Task ").append(task.getId()).append(": ")
+                    .append(task.getName()).append(", startTime: ").append(task.getStartTime());
         }
+        return description.toString();
+    }
 
-        if (task1.getId() == task2.getId()) {
-            return;
+    @Override
+    public Page<Task> getTasks(int afterId, int limit) {
+        return page(tasks, taskIds, afterId, limit);
+    }
+
+    @Override
+    public Page<Epic> getEpics(int afterId, int limit) {
+        return page(epics, epicIds, afterId, limit);
+    }
+
+    @Override
+    public Page<Subtask> getSubtasks(int afterId, int limit) {
+        return page(subtasks, subtaskIds, afterId, limit);
+    }
+
+    /**
+     * Курсор списка по приоритету - ключ последней задачи страницы: "id" для задачи без времени
+     * или "id@время начала". Страница продолжается со следующей задачи в порядке приоритета,
+     * даже если сама задача курсора с тех пор изменилась или удалена.
+     */
+    @Override
+    public Page<Task> getPrioritizedTasks(String cursor, int limit) {
+        checkLimit(limit);
+        Iterator<Task> iterator = cursor == null
+                ? prioritizedTasks.iterator()
+                : prioritizedTasks.tailSet(parsePriorityCursor(cursor), false).iterator();
+        List<Task> items = new ArrayList<>(Math.min(limit, prioritizedTasks.size()));
+        Task last = null;
+        while (iterator.hasNext() && items.size() < limit) {
+            last = iterator.next();
+            items.add(last.copy());
+        }
+        String next = iterator.hasNext() ? priorityCursor(last) : null;
+        return new Page<>(items, next);
+    }
+
+    private static String priorityCursor(Task task) {
+        return task.getStartTime() == null ? String.valueOf(task.getId()) : task.getId() + "@" + task.getStartTime();
+    }
+
+    private static Task parsePriorityCursor(String cursor) {
+        try {
+            int separator = cursor.indexOf('@');
+            int id = Integer.parseInt(separator < 0 ? cursor : cursor.substring(0, separator));
+            LocalDateTime startTime = separator < 0 ? null : LocalDateTime.parse(cursor.substring(separator + 1));
+            return priorityKey(startTime, id);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
         }
+    }
 
-        LocalDateTime start1 = task1.getStartTime();
-        LocalDateTime end1 = task1.getEndTime();
-        LocalDateTime start2 = task2.getStartTime();
-        LocalDateTime end2 = task2.getEndTime();
+    /**
+     * Задача-ключ для поиска в prioritizedTasks: компаратор приоритета смотрит только на время начала и id
+     */
+    private static Task priorityKey(LocalDateTime startTime, int id) {
+        Task key = new Task(null, null, Duration.ZERO, startTime);
+        key.setId(id);
+        return key;
+    }
 
-        if (!(end1.isBefore(start2) || end2.isBefore(start1))) {
-            throw new IllegalArgumentException(
-                    String.format("Задача '%s' пересекается по времени с существующей задачей '%s'",
-                            task1.getName(), task2.getName())
-            );
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало интервала должно быть не позже конца");
+        }
+        checkLimit(limit);
+        return timeIndex.findOverlaps(from, to, limit).stream()
+                .map(Task::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Task> getTasksStartingAfter(LocalDateTime time, int limit) {
+        if (time == null) {
+            throw new IllegalArgumentException("Не указано время");
+        }
+        checkLimit(limit);
+        List<Task> result = new ArrayList<>();
+        // Ключ с наименьшим id стоит перед всеми задачами, начинающимися ровно в time
+        for (Task task : prioritizedTasks.tailSet(priorityKey(time, Integer.MIN_VALUE), true)) {
+            if (task.getStartTime() == null || result.size() == limit) {
+                break;
+            }
+            result.add(task.copy());
         }
+        return result;
     }
 
-    private void validateTimeOverlap(Task newTask) {
-        if (newTask.getStartTime() == null) {
-            return;
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        checkSlotRequest(duration, notBefore);
+        return timeIndex.findFreeSlot(notBefore, duration);
+    }
+
+    @Override
+    public List<Task> autoSchedule(List<Integer> ids, LocalDateTime notBefore) {
+        checkSlotRequest(Duration.ZERO, notBefore);
+        // Сначала проверяем все id, чтобы при ошибке ничего не поменять
+        List<Task> unscheduled = new ArrayList<>(ids.size());
+        Set<Integer> seen = new HashSet<>();
+        Duration total = Duration.ZERO;
+        for (int id : ids) {
+            Task task = tasks.get(id);
+            if (task == null) {
+                task = subtasks.get(id);
+            }
+            if (task == null) {
+                throw new NotFoundException("Задача с ID " + id + " не найдена");
+            }
+            if (task.getStartTime() != null) {
+                throw new IllegalArgumentException("Задача с ID " + id + " уже запланирована");
+            }
+            if (!seen.add(id)) {
+                throw new IllegalArgumentException("Задача с ID " + id + " указана дважды");
+            }
+            checkSlotRequest(task.getDuration(), notBefore);
+            total = total.plus(task.getDuration());
+            checkSlotRequest(total, notBefore);
+            unscheduled.add(task);
+        }
+
+        // Промежутки берутся из индекса, поэтому проверять пересечения для каждой задачи не нужно
+        List<Task> scheduled = new ArrayList<>(unscheduled.size());
+        LocalDateTime from = notBefore;
+        boolean subtaskScheduled = false;
+        for (Task task : unscheduled) {
+            removePrioritized(task);
+            task.setStartTime(timeIndex.findFreeSlot(from, task.getDuration()));
+            addPrioritized(task);
+            from = task.getEndTime();
+            if (task instanceof Subtask) {
+                Epic epic = epics.get(((Subtask) task).getEpicId());
+                if (epic != null) {
+                    epic.applySubtask((Subtask) task);
+                }
+                subtaskScheduled = true;
+            }
+            scheduled.add(task.copy());
+        }
+
+        if (subtaskScheduled) {
+            changedAll();
+        } else if (!unscheduled.isEmpty()) {
+            changed(BoardCollection.TASKS, BoardCollection.PRIORITIZED, BoardCollection.HISTORY);
+        }
+        for (Task task : unscheduled) {
+            if (task instanceof Subtask) {
+                notifySubtaskChanged((Subtask) task);
+            } else {
+                notifyChanged(BoardCollection.TASKS, task.getId());
+            }
+        }
+        return scheduled;
+    }
+
+    @Override
+    public List<Conflict> findConflicts() {
+        return ConflictDetector.findConflicts(prioritizedTasks);
+    }
+
+    private static void checkSlotRequest(Duration duration, LocalDateTime notBefore) {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность должна быть не меньше нуля");
+        }
+        if (notBefore == null) {
+            throw new IllegalArgumentException("Не указано время, с которого искать");
+        }
+        if (!TimeIntervalIndex.fitsBeforeMax(notBefore, duration)) {
+            throw new IllegalArgumentException("Длительность " + duration + " слишком большая");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> Page<T> page(IntObjectMap<T> store, SortedIntSet ids, int afterId, int limit) {
+        checkLimit(limit);
+        int index = ids.indexAfter(afterId);
+        List<T> items = new ArrayList<>(Math.min(limit, ids.size() - index));
+        while (index < ids.size() && items.size() < limit) {
+            items.add((T) store.get(ids.get(index++)).copy());
+        }
+        String next = index < ids.size() ? String.valueOf(ids.get(index - 1)) : null;
+        return new Page<>(items, next);
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть больше нуля");
+        }
+    }
+
+    /**
+     * Перестраивает всё, что выводится из хранилищ: связи и агрегаты эпиков, список по приоритету
+     * и индекс интервалов. Вызывается после массовой загрузки, когда сущности положены прямо в хранилища.
+     * Вместо n вставок задачи один раз сортируются, а TreeSet и дерево интервалов собираются
+     * из отсортированного массива за линейное время. На больших объёмах сортировка
+     * и пересчёт эпиков выполняются параллельно.
+     * Подзадачи должны ссылаться на существующие эпики.
+     */
+    protected void rebuildIndexes() {
+        prioritizedSnapshot = null;
+        boolean parallel = tasks.size() + subtasks.size() >= PARALLEL_REBUILD_THRESHOLD;
+
+        Subtask[] allSubtasks = subtasks.values().toArray(new Subtask[0]);
+        sort(allSubtasks, Comparator.comparingInt(Task::getId), parallel);
+        IntObjectMap<List<Subtask>> subtasksByEpic = new IntObjectMap<>(epics.size());
+        for (Subtask subtask : allSubtasks) {
+            List<Subtask> epicSubtasks = subtasksByEpic.get(subtask.getEpicId());
+            if (epicSubtasks == null) {
+                epicSubtasks = new ArrayList<>();
+                subtasksByEpic.put(subtask.getEpicId(), epicSubtasks);
+            }
+            epicSubtasks.add(subtask);
+        }
+        (parallel ? epics.values().parallelStream() : epics.values().stream()).forEach(epic -> {
+            List<Subtask> epicSubtasks = subtasksByEpic.get(epic.getId());
+            epic.setSubtasks(epicSubtasks != null ? epicSubtasks : List.of());
+        });
+
+        List<Task> scheduled = new ArrayList<>(tasks.size() + subtasks.size());
+        scheduled.addAll(tasks.values());
+        for (Subtask subtask : allSubtasks) {
+            if (subtask.getStartTime() != null) {
+                scheduled.add(subtask);
+            }
+        }
+        Task[] sorted = scheduled.toArray(new Task[0]);
+        sort(sorted, PRIORITY_ORDER, parallel);
+        List<Task> ordered = Arrays.asList(sorted);
+
+        prioritizedTasks.clear();
+        prioritizedTasks.addAll(new SortedListView(ordered));
+        timeIndex.rebuild(ordered);
+
+        rebuildIds(taskIds, tasks);
+        rebuildIds(epicIds, epics);
+        rebuildIds(subtaskIds, subtasks);
+    }
+
+    private static void rebuildIds(SortedIntSet ids, IntObjectMap<?> store) {
+        int[] keys = new int[store.size()];
+        int[] count = new int[1];
+        store.forEachKey(id -> keys[count[0]++] = id);
+        ids.rebuild(keys);
+    }
+
+    private static <T> void sort(T[] array, Comparator<? super T> comparator, boolean parallel) {
+        if (parallel) {
+            Arrays.parallelSort(array, comparator);
+        } else {
+            Arrays.sort(array, comparator);
+        }
+    }
+
+    /**
+     * Уже упорядоченный список в виде неизменяемого SortedSet с тем же компаратором, что и у prioritizedTasks.
+     * Для такого аргумента TreeSet.addAll в пустое множество строит дерево за O(n),
+     * не сравнивая элементы заново. Поиск и диапазоны - двоичным поиском по списку,
+     * диапазон - представление той же части списка.
+     */
+    static class SortedListView extends AbstractSet<Task> implements SortedSet<Task> {
+        private final List<Task> sorted;
+
+        /**
+         * @param sorted задачи без повторов в порядке приоритета
+         */
+        SortedListView(List<Task> sorted) {
+            this.sorted = Collections.unmodifiableList(sorted);
+        }
+
+        @Override
+        public Comparator<? super Task> comparator() {
+            return PRIORITY_ORDER;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return sorted.iterator();
+        }
+
+        @Override
+        public int size() {
+            return sorted.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Task && Collections.binarySearch(sorted, (Task) o, PRIORITY_ORDER) >= 0;
         }
 
-        List<Task> prioritized = getPrioritizedTasks();
-        LocalDateTime newEnd = newTask.getEndTime();
+        @Override
+        public Task first() {
+            if (sorted.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return sorted.get(0);
+        }
+
+        @Override
+        public Task last() {
+            if (sorted.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return sorted.get(sorted.size() - 1);
+        }
+
+        @Override
+        public SortedSet<Task> subSet(Task fromElement, Task toElement) {
+            if (PRIORITY_ORDER.compare(fromElement, toElement) > 0) {
+                throw new IllegalArgumentException("Начало диапазона больше конца");
+            }
+            return new SortedListView(sorted.subList(indexOf(fromElement), indexOf(toElement)));
+        }
+
+        @Override
+        public SortedSet<Task> headSet(Task toElement) {
+            return new SortedListView(sorted.subList(0, indexOf(toElement)));
+        }
+
+        @Override
+        public SortedSet<Task> tailSet(Task fromElement) {
+            return new SortedListView(sorted.subList(indexOf(fromElement), sorted.size()));
+        }
 
-        for (Task existingTask : prioritized) {
+        /**
+         * @return позиция первой задачи не меньше key
+         */
+        private int indexOf(Task key) {
+            int index = Collections.binarySearch(sorted, key, PRIORITY_ORDER);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
 
-            validateTimeOverlap(newTask, existingTask);
+    protected int nextId() {
+        return ++idCounter;
+    }
 
-            if (existingTask.getStartTime() != null && existingTask.getStartTime().isAfter(newEnd)) {
+    @Override
+    public List<ViewCount> getTopViewed(int k) {
+        List<ViewCount> result = new ArrayList<>();
+        // Удалённые задачи остаются среди лидеров, пока их не вытеснят, - пропускаем их
+        for (HeavyHitters.Entry entry : viewCounter.top(viewCounter.getCapacity())) {
+            if (result.size() == k) {
                 break;
             }
+            Task task = findForHistory(entry.getId());
+            if (task != null) {
+                result.add(new ViewCount(task, entry.getCount()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Источник задач для истории, которая хранит только id
+     *
+     * @return копия текущей задачи, эпика или подзадачи либо null, если её нет
+     */
+    protected Task findForHistory(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        return task != null ? task.copy() : null;
+    }
+
+    protected void recordView(Task task) {
+        historyManager.add(task);
+        viewCounter.record(task.getId());
+        changed(BoardCollection.HISTORY);
+    }
+
+    @Override
+    public long getVersion(BoardCollection collection) {
+        long version = versions.get(collection.ordinal());
+        // Асинхронная история могла ещё не применить изменения, учтённые в этом номере
+        if (collection == BoardCollection.HISTORY) {
+            historyManager.flush();
+        }
+        return version;
+    }
+
+    /**
+     * Увеличивает версии изменённых наборов данных. Вызывается после изменения,
+     * пока изменяющий поток ещё держит блокировки хранилищ
+     */
+    protected void changed(BoardCollection... collections) {
+        for (BoardCollection collection : collections) {
+            versions.incrementAndGet(collection.ordinal());
+        }
+    }
+
+    private void changedAll() {
+        changed(BoardCollection.values());
+    }
+
+    @Override
+    public void addChangeListener(BoardChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    private void notifyChanged(BoardCollection collection, int id) {
+        for (BoardChangeListener listener : changeListeners) {
+            listener.onChange(collection, id);
+        }
+    }
+
+    // Вместе с подзадачей меняется её эпик: статус, сроки и список подзадач
+    private void notifySubtaskChanged(Subtask subtask) {
+        notifyChanged(BoardCollection.SUBTASKS, subtask.getId());
+        notifyChanged(BoardCollection.EPICS, subtask.getEpicId());
+    }
+
+    private void validateTimeOverlap(Task newTask) {
+        if (newTask.getStartTime() == null) {
+            return;
+        }
+
+        Task existingTask = timeIndex.findOverlap(newTask.getStartTime(), newTask.getEndTime(), newTask.getId());
+        if (existingTask != null) {
+            throw new IllegalArgumentException(
+                    String.format("Задача '%s' пересекается по времени с существующей задачей '%s'",
+                            newTask.getName(), existingTask.getName())
+            );
+        }
+    }
+
+    private void addPrioritized(Task task) {
+        prioritizedTasks.add(task);
+        timeIndex.add(task);
+    }
+
+    private void removePrioritized(Task task) {
+        boolean indexed = timeIndex.remove(task.getId());
+        // Если задачу изменили напрямую, TreeSet не найдёт её по новым полям
+        if (!prioritizedTasks.remove(task) && (indexed || task.getType() == TaskType.TASK)) {
+            prioritizedTasks.removeIf(existing -> existing.getId() == task.getId());
         }
     }
 
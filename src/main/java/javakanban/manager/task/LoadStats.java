@@ -0,0 +1,56 @@
+package javakanban.manager.task;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статистика загрузки снимка из файла: объём, число записей, время и пропускная способность
+ */
+public final class LoadStats {
+
+    public static final LoadStats EMPTY = new LoadStats(0, 0, 0, 1);
+
+    private final long bytes;
+    private final int records;
+    private final long nanos;
+    private final int chunks;
+
+    public LoadStats(long bytes, int records, long nanos, int chunks) {
+        this.bytes = bytes;
+        this.records = records;
+        this.nanos = nanos;
+        this.chunks = chunks;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getRecords() {
+        return records;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * @return на сколько частей файл разбивался для параллельного разбора (1 - последовательная загрузка)
+     */
+    public int getChunks() {
+        return chunks;
+    }
+
+    public double getMegabytesPerSecond() {
+        return nanos == 0 ? 0 : bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+    }
+
+    public double getRecordsPerSecond() {
+        return nanos == 0 ? 0 : records / (nanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d записей, %d байт за %d мс (%.1f МБ/с, %.0f записей/с, частей: %d)",
+                records, bytes, getElapsedMillis(), getMegabytesPerSecond(), getRecordsPerSecond(), chunks);
+    }
+}
@@ -0,0 +1,15 @@
+package javakanban.manager.task;
+
+/**
+ * Способ сохранения изменений FileBackedTaskManager
+ */
+public enum PersistenceMode {
+    /**
+     * Полная перезапись CSV-файла после каждого изменения
+     */
+    SNAPSHOT,
+    /**
+     * Дописывание одной записи на изменение в журнал с периодическим сжатием в CSV-снимок
+     */
+    JOURNAL
+}
@@ -0,0 +1,16 @@
+package javakanban.manager.task;
+
+/**
+ * Формат файла-снимка FileBackedTaskManager.
+ * При загрузке формат определяется по содержимому файла, настройка влияет только на запись.
+ */
+public enum SnapshotFormat {
+    /**
+     * Текстовый CSV - читаемый человеком, остаётся доступным для экспорта
+     */
+    CSV,
+    /**
+     * Компактный двоичный формат с заголовком, контрольной суммой и версией (см. BinarySnapshotCodec)
+     */
+    BINARY
+}
@@ -0,0 +1,191 @@
+package javakanban.manager.task;
+
+import javakanban.models.Task;
+import javakanban.utils.BinarySnapshotCodec;
+import javakanban.utils.CsvConverter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Потоковая загрузка снимка. Двоичный снимок (см. {@link BinarySnapshotCodec}) узнаётся
+ * по магическому числу в начале файла и читается через канал целиком; остальные файлы считаются CSV.
+ * Небольшие CSV-файлы читаются построчно через BufferedReader - в памяти одновременно одна строка.
+ * Файлы от {@link #PARALLEL_THRESHOLD_BYTES} отображаются в память и делятся на части по границам строк,
+ * которые разбираются параллельно; результаты передаются получателю в порядке следования в файле.
+ * Первая строка файла - заголовок, она пропускается.
+ */
+public final class SnapshotLoader {
+
+    public static final long PARALLEL_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_CHUNK_BYTES = 256L * 1024 * 1024;
+
+    private SnapshotLoader() {
+    }
+
+    /**
+     * Загружает задачи из файла и передаёт их получателю по порядку
+     *
+     * @return статистика загрузки
+     */
+    public static LoadStats load(File file, Consumer<Task> sink) throws IOException {
+        return load(file, sink, PARALLEL_THRESHOLD_BYTES, Runtime.getRuntime().availableProcessors());
+    }
+
+    static LoadStats load(File file, Consumer<Task> sink, long parallelThreshold, int parallelism)
+            throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return LoadStats.EMPTY;
+        }
+        long started = System.nanoTime();
+        long bytes = file.length();
+        if (isBinary(file)) {
+            int records;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                records = BinarySnapshotCodec.read(channel, sink);
+            }
+            return new LoadStats(bytes, records, System.nanoTime() - started, 1);
+        }
+        if (bytes < parallelThreshold || parallelism < 2) {
+            int records = loadSequentially(file, sink);
+            return new LoadStats(bytes, records, System.nanoTime() - started, 1);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, parallelism);
+            int chunks = bounds.length - 1;
+            List<List<Task>> parsed;
+            try {
+                parsed = IntStream.range(0, chunks)
+                        .parallel()
+                        .mapToObj(i -> parseChunk(channel, bounds[i], bounds[i + 1]))
+                        .toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            int records = 0;
+            for (List<Task> chunk : parsed) {
+                chunk.forEach(sink);
+                records += chunk.size();
+            }
+            return new LoadStats(bytes, records, System.nanoTime() - started, chunks);
+        }
+    }
+
+    private static boolean isBinary(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer firstBytes = ByteBuffer.allocate(4);
+            channel.read(firstBytes, 0);
+            return BinarySnapshotCodec.isBinarySnapshot(firstBytes.flip());
+        }
+    }
+
+    private static int loadSequentially(File file, Consumer<Task> sink) throws IOException {
+        int records = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8),
+                READ_BUFFER_SIZE)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+
+                sink.accept(CsvConverter.fromString(line));
+                records++;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Делит файл (без заголовка) на части, каждая из которых начинается с начала строки
+     */
+    private static long[] chunkBounds(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        long dataStart = nextLineStart(channel, 0);
+        long dataSize = size - dataStart;
+        int chunks = (int) Math.max(parallelism, (dataSize + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        long[] bounds = new long[chunks + 1];
+        bounds[0] = dataStart;
+        for (int i = 1; i < chunks; i++) {
+            long target = Math.max(dataStart + dataSize * i / chunks, bounds[i - 1]);
+            bounds[i] = nextLineStart(channel, target);
+        }
+        bounds[chunks] = size;
+        // Части короче строки схлопываются в пустые - их убираем
+        return Arrays.stream(bounds).distinct().toArray();
+    }
+
+    /**
+     * @return позиция сразу после первого перевода строки, начиная с position (или конец файла)
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        long size = channel.size();
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static List<Task> parseChunk(FileChannel channel, long from, long to) {
+        List<Task> tasks = new ArrayList<>();
+        if (from >= to) {
+            return tasks;
+        }
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] line = new byte[256];
+        int length = 0;
+        while (true) {
+            boolean atEnd = !buffer.hasRemaining();
+            byte next = atEnd ? (byte) '\n' : buffer.get();
+            if (next == '\n') {
+                String text = new String(line, 0, length, StandardCharsets.UTF_8).trim();
+                if (!text.isEmpty()) {
+                    tasks.add(CsvConverter.fromString(text));
+                }
+                length = 0;
+                if (atEnd) {
+                    return tasks;
+                }
+                continue;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+            line[length++] = next;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package javakanban.manager.task;
+
+/**
+ * Настройки файлового хранилища FileBackedTaskManager.
+ * Объект неизменяемый: методы with* возвращают изменённую копию.
+ * Режим надёжности (durability) относится к журналу; в режиме SNAPSHOT файл по-прежнему
+ * перезаписывается синхронно при каждом изменении.
+ */
+public final class StorageSettings {
+
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    public static final long DEFAULT_GROUP_COMMIT_WINDOW_MICROS = 2_000;
+    public static final int DEFAULT_GROUP_COMMIT_MAX_BATCH = 128;
+
+    private final PersistenceMode mode;
+    private final int compactionThreshold;
+    private final Durability durability;
+    private final long groupCommitWindowMicros;
+    private final int groupCommitMaxBatch;
+    private final SnapshotFormat snapshotFormat;
+
+    private StorageSettings(PersistenceMode mode, int compactionThreshold, Durability durability,
+                            long groupCommitWindowMicros, int groupCommitMaxBatch, SnapshotFormat snapshotFormat) {
+        this.mode = mode;
+        this.compactionThreshold = compactionThreshold;
+        this.durability = durability;
+        this.groupCommitWindowMicros = groupCommitWindowMicros;
+        this.groupCommitMaxBatch = groupCommitMaxBatch;
+        this.snapshotFormat = snapshotFormat;
+    }
+
+    /**
+     * Прежнее поведение: CSV-снимок перезаписывается после каждого изменения
+     */
+    public static StorageSettings defaults() {
+        return new StorageSettings(PersistenceMode.SNAPSHOT, DEFAULT_COMPACTION_THRESHOLD, Durability.SYNC,
+                DEFAULT_GROUP_COMMIT_WINDOW_MICROS, DEFAULT_GROUP_COMMIT_MAX_BATCH, SnapshotFormat.CSV);
+    }
+
+    public static StorageSettings journal() {
+        return defaults().withMode(PersistenceMode.JOURNAL);
+    }
+
+    public StorageSettings withMode(PersistenceMode mode) {
+        return new StorageSettings(mode, compactionThreshold, durability,
+                groupCommitWindowMicros, groupCommitMaxBatch, snapshotFormat);
+    }
+
+    /**
+     * @param compactionThreshold число записей журнала, после которого он сжимается в снимок
+     */
+    public StorageSettings withCompactionThreshold(int compactionThreshold) {
+        if (compactionThreshold < 1) {
+            throw new IllegalArgumentException("Порог сжатия журнала должен быть положительным");
+        }
+        return new StorageSettings(mode, compactionThreshold, durability,
+                groupCommitWindowMicros, groupCommitMaxBatch, snapshotFormat);
+    }
+
+    public StorageSettings withDurability(Durability durability) {
+        return new StorageSettings(mode, compactionThreshold, durability,
+                groupCommitWindowMicros, groupCommitMaxBatch, snapshotFormat);
+    }
+
+    /**
+     * @param windowMicros сколько ждать попутные записи перед сбросом пакета на диск
+     * @param maxBatch     после скольких записей пакет сбрасывается, не дожидаясь конца окна
+     */
+    public StorageSettings withGroupCommit(long windowMicros, int maxBatch) {
+        if (windowMicros < 0 || maxBatch < 1) {
+            throw new IllegalArgumentException("Некорректные параметры групповой фиксации");
+        }
+        return new StorageSettings(mode, compactionThreshold, Durability.GROUP_COMMIT, windowMicros, maxBatch,
+                snapshotFormat);
+    }
+
+    public StorageSettings withSnapshotFormat(SnapshotFormat snapshotFormat) {
+        return new StorageSettings(mode, compactionThreshold, durability,
+                groupCommitWindowMicros, groupCommitMaxBatch, snapshotFormat);
+    }
+
+    public PersistenceMode getMode() {
+        return mode;
+    }
+
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public long getGroupCommitWindowMicros() {
+        return groupCommitWindowMicros;
+    }
+
+    public int getGroupCommitMaxBatch() {
+        return groupCommitMaxBatch;
+    }
+
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
+}
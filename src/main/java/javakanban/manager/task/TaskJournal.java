@@ -0,0 +1,340 @@
+package javakanban.manager.task;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Журнал изменений (write-ahead log): одна текстовая запись на изменение, только дописывание в конец.
+ * Форматы записей:
+ * PUT2,&lt;строка CSV сущности&gt; | DELETE,&lt;тип&gt;,&lt;id&gt; | CLEAR,&lt;тип&gt;
+ * В PUT2 текстовые поля сущности экранируются ({@link javakanban.utils.CsvConverter#toEscapedString}),
+ * чтобы запятые и переводы строк в них не ломали запись. Записи PUT из журналов прежней версии
+ * содержат CSV без экранирования и читаются как есть: обратная косая черта в них - обычный символ.
+ * <p>
+ * Запись идёт через FileChannel, момент сброса на диск (fsync) задаётся {@link Durability}.
+ * В режимах GROUP_COMMIT и ASYNC записи копятся в буфере и сбрасываются фоновым потоком
+ * пакетами: одна запись в файл и один fsync на пакет.
+ */
+public class TaskJournal implements Closeable {
+
+    /**
+     * Запись прежней версии, без экранирования: только читается
+     */
+    public static final String PUT = "PUT";
+    public static final String PUT_ESCAPED = "PUT2";
+    public static final String DELETE = "DELETE";
+    public static final String CLEAR = "CLEAR";
+
+    private final File file;
+    private final Durability durability;
+    private final long windowNanos;
+    private final int maxBatch;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAvailable = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+
+    private FileChannel channel;
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private int pendingCount;
+    private long appendedSeq;
+    private long durableSeq;
+    private boolean flushing;
+    private boolean closed;
+    private IOException failure;
+    private Thread flusher;
+    private int size;
+    private long syncCount;
+
+    public TaskJournal(File file) {
+        this(file, StorageSettings.defaults());
+    }
+
+    public TaskJournal(File file, StorageSettings settings) {
+        this.file = file;
+        this.durability = settings.getDurability();
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(settings.getGroupCommitWindowMicros());
+        this.maxBatch = settings.getGroupCommitMaxBatch();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return число записей, добавленных с момента последнего сжатия
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return сколько раз журнал сбрасывался на диск (fsync)
+     */
+    long syncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Передаёт все записи журнала по порядку. Последняя запись без перевода строки считается
+     * недописанной (сбой во время записи) и пропускается.
+     *
+     * @return число прочитанных записей
+     */
+    public int replay(Consumer<String> consumer) throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+        boolean lastRecordComplete = endsWithNewLine();
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null) {
+                String next = reader.readLine();
+                if (next == null && !lastRecordComplete) {
+                    break;
+                }
+                if (!line.isEmpty()) {
+                    consumer.accept(line);
+                    count++;
+                }
+                line = next;
+            }
+        }
+        size = count;
+        return count;
+    }
+
+    /**
+     * Добавляет запись в журнал. В режиме SYNC запись уже на диске к моменту возврата,
+     * в остальных режимах - только в буфере.
+     *
+     * @return номер записи, который можно передать в {@link #awaitDurable(long)}
+     */
+    public long append(String record) throws IOException {
+        byte[] bytes = (record + "\n").getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            ensureUsable();
+            size++;
+            long seq = ++appendedSeq;
+            if (durability == Durability.SYNC) {
+                writeAndSync(bytes);
+                syncCount++;
+                durableSeq = seq;
+                return seq;
+            }
+            pending.write(bytes, 0, bytes.length);
+            pendingCount++;
+            startFlusher();
+            pendingAvailable.signal();
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ждёт, пока запись с указанным номером окажется на диске.
+     * Ждать имеет смысл только в режиме GROUP_COMMIT: в SYNC запись уже сохранена,
+     * а в ASYNC вызывающий сознательно не ждёт.
+     */
+    public void awaitDurable(long seq) throws IOException {
+        if (durability != Durability.GROUP_COMMIT) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (failure != null) {
+                    throw failure;
+                }
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание записи журнала прервано");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Очищает журнал после того, как его содержимое попало в снимок.
+     * Записи, ещё не сброшенные на диск, уже вошли в снимок, поэтому они отбрасываются,
+     * а ожидающие их вызовы завершаются.
+     */
+    public void reset() throws IOException {
+        lock.lock();
+        try {
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            pending.reset();
+            pendingCount = 0;
+            if (channel != null) {
+                channel.truncate(0);
+                channel.force(true);
+            } else {
+                Files.write(file.toPath(), new byte[0]);
+            }
+            size = 0;
+            durableSeq = appendedSeq;
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает на диск накопленные записи, останавливает фоновый поток и закрывает файл
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        lock.lock();
+        try {
+            closed = true;
+            pendingAvailable.signal();
+            thread = flusher;
+        } finally {
+            lock.unlock();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            flusher = null;
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureUsable() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("Журнал закрыт");
+        }
+        if (channel == null) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+    }
+
+    private void writeAndSync(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    private void startFlusher() {
+        if (flusher == null) {
+            flusher = new Thread(this::flushLoop, "task-journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Фоновый сброс: дожидается первой записи, затем добирает пакет до конца окна
+     * или до maxBatch записей и сбрасывает его одним write + fsync
+     */
+    private void flushLoop() {
+        lock.lock();
+        try {
+            while (true) {
+                while (pendingCount == 0 && !closed) {
+                    pendingAvailable.awaitUninterruptibly();
+                }
+                if (pendingCount == 0) {
+                    return;
+                }
+                long deadline = System.nanoTime() + windowNanos;
+                while (pendingCount < maxBatch && !closed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    pendingAvailable.awaitNanos(remaining);
+                }
+
+                ByteArrayOutputStream batch = pending;
+                pending = new ByteArrayOutputStream();
+                pendingCount = 0;
+                long batchSeq = appendedSeq;
+                flushing = true;
+                IOException error = null;
+                lock.unlock();
+                try {
+                    writeAndSync(batch.toByteArray());
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                }
+                if (error == null) {
+                    syncCount++;
+                    durableSeq = batchSeq;
+                } else {
+                    failure = error;
+                }
+                flushed.signalAll();
+                if (failure != null) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean endsWithNewLine() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package javakanban.manager.task;
 
+import javakanban.models.Conflict;
 import javakanban.models.Epic;
+import javakanban.models.Page;
 import javakanban.models.Subtask;
 import javakanban.models.Task;
+import javakanban.models.ViewCount;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskManager {
 
@@ -28,6 +34,12 @@ public interface TaskManager {
 
     Epic getEpicById(int id);
 
+    /**
+     * Есть ли эпик с таким id. В отличие от {@link #getEpicById(int)} не копирует эпик
+     * и не записывает просмотр в историю
+     */
+    boolean containsEpic(int id);
+
     Epic createEpic(Epic epic);
 
     Epic updateEpic(Epic epic);
@@ -48,5 +60,115 @@ public interface TaskManager {
 
     List<Subtask> getSubtasksByEpic(int epicId);
 
+    /**
+     * Задачи и подзадачи по приоритету: сначала по времени начала, задачи без времени - в конце.
+     * Возвращается неизменяемый снимок порядка, общий для всех вызывающих, пока расписание не изменится.
+     * Каждое обращение к элементу возвращает новую копию задачи: её изменение не видно ни снимку,
+     * ни другим читателям, а для сохранения изменений нужен update.
+     */
     List<Task> getPrioritizedTasks();
-}
\ No newline at end of file
+
+    /**
+     * Задачи и подзадачи, которые идут в интервале [from, to) хотя бы частично,
+     * по возрастанию времени начала
+     *
+     * @throws IllegalArgumentException если from позже to
+     */
+    default List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        return getTasksBetween(from, to, Integer.MAX_VALUE);
+    }
+
+    /**
+     * То же, что {@link #getTasksBetween(LocalDateTime, LocalDateTime)}, но не больше limit задач
+     */
+    List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Ближайшие задачи и подзадачи, которые начинаются не раньше time, по возрастанию времени начала
+     *
+     * @param limit сколько задач вернуть самое большее, больше нуля
+     */
+    List<Task> getTasksStartingAfter(LocalDateTime time, int limit);
+
+    /**
+     * Самое раннее время не раньше notBefore, с которого можно поставить задачу длительностью duration,
+     * не пересекаясь с запланированными задачами и подзадачами
+     */
+    LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore);
+
+    /**
+     * Расставляет задачи и подзадачи без времени начала по свободным промежуткам за один проход.
+     * Задачи ставятся в переданном порядке: каждая - в первый подходящий промежуток
+     * после окончания предыдущей (первая - не раньше notBefore).
+     *
+     * @param ids id задач и подзадач, у которых ещё нет времени начала
+     * @return запланированные задачи в том же порядке
+     * @throws IllegalArgumentException если у задачи уже есть время или id повторяется
+     */
+    List<Task> autoSchedule(List<Integer> ids, LocalDateTime notBefore);
+
+    /**
+     * Все пересечения по времени среди задач и подзадач - в том числе загруженных из файла без проверки
+     *
+     * @return группы пересекающихся задач по возрастанию времени начала
+     */
+    List<Conflict> findConflicts();
+
+    /**
+     * То же, что {@link #findConflicts()}, но группы передаются по одной, по мере нахождения,
+     * и весь отчёт в памяти не собирается. Проход идёт по снимку {@link #getPrioritizedTasks()}
+     * без блокировок менеджера, поэтому consumer может, например, писать в сеть.
+     */
+    default void forEachConflict(Consumer<? super Conflict> consumer) {
+        ConflictDetector.forEachConflict(getPrioritizedTasks(), consumer);
+    }
+
+    /**
+     * Страница задач по возрастанию id
+     *
+     * @param afterId id, после которого начинается страница (0 - с начала)
+     * @param limit   максимальный размер страницы, больше нуля
+     * @return задачи и курсор следующей страницы - id последней задачи
+     */
+    Page<Task> getTasks(int afterId, int limit);
+
+    /**
+     * Страница эпиков по возрастанию id, см. {@link #getTasks(int, int)}
+     */
+    Page<Epic> getEpics(int afterId, int limit);
+
+    /**
+     * Страница подзадач по возрастанию id, см. {@link #getTasks(int, int)}
+     */
+    Page<Subtask> getSubtasks(int afterId, int limit);
+
+    /**
+     * Страница списка по приоритету
+     *
+     * @param cursor курсор из предыдущей страницы или null для первой страницы
+     * @param limit  максимальный размер страницы, больше нуля
+     * @throws IllegalArgumentException если курсор некорректен
+     */
+    Page<Task> getPrioritizedTasks(String cursor, int limit);
+
+    /**
+     * Самые просматриваемые задачи (приблизительный подсчёт)
+     *
+     * @param k сколько задач вернуть
+     * @return задачи по убыванию числа просмотров
+     */
+    List<ViewCount> getTopViewed(int k);
+
+    /**
+     * Номер версии набора данных: растёт при каждом изменении, которое может поменять
+     * его содержимое. Одинаковый номер означает, что данные не менялись.
+     * Номер увеличивается после изменения, поэтому данные, прочитанные после номера,
+     * не старее его.
+     */
+    long getVersion(BoardCollection collection);
+
+    /**
+     * Подписывает на изменения сущностей, например для сброса кешей
+     */
+    void addChangeListener(BoardChangeListener listener);
+}
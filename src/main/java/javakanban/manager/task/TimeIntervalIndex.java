@@ -0,0 +1,340 @@
+package javakanban.manager.task;
+
+import javakanban.models.Task;
+import javakanban.utils.IntObjectMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Индекс временных интервалов запланированных задач.
+ * Сбалансированное (AVL) дерево по ключу (startTime, id), где каждый узел
+ * дополнительно хранит максимальное время окончания в своём поддереве.
+ * Это позволяет отвечать на вопрос "пересекается ли [start, end) с чем-либо" за O(log n).
+ * Интервалы полуоткрытые: задача, начинающаяся ровно в момент окончания другой, с ней не пересекается.
+ */
+public class TimeIntervalIndex {
+
+    private Node root;
+
+    // Ключи, под которыми задачи были проиндексированы: задача может измениться
+    // раньше, чем её уберут из индекса, поэтому опираться на её текущие поля нельзя.
+    private final IntObjectMap<Node> nodesById = new IntObjectMap<>();
+
+    /**
+     * Добавляет задачу в индекс (или переиндексирует, если задача с таким id уже есть).
+     * Задачи без времени начала не индексируются.
+     *
+     * @param task задача для добавления
+     */
+    public void add(Task task) {
+        remove(task.getId());
+        if (task.getStartTime() == null) {
+            return;
+        }
+        Node node = new Node(task);
+        root = insert(root, node);
+        nodesById.put(node.id, node);
+    }
+
+    /**
+     * Удаляет задачу из индекса по ID
+     *
+     * @param id идентификатор задачи
+     * @return true, если задача была в индексе
+     */
+    public boolean remove(int id) {
+        Node node = nodesById.remove(id);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node.start, node.id);
+        return true;
+    }
+
+    /**
+     * Строит индекс заново из задач, уже упорядоченных по (startTime, id).
+     * Сбалансированное дерево собирается за O(n) без вращений - вместо n вставок по O(log n).
+     * Задачи без времени начала пропускаются.
+     *
+     * @param sortedTasks задачи в порядке возрастания (startTime, id)
+     */
+    public void rebuild(List<? extends Task> sortedTasks) {
+        clear();
+        Node[] nodes = new Node[sortedTasks.size()];
+        int count = 0;
+        for (Task task : sortedTasks) {
+            if (task.getStartTime() != null) {
+                Node node = new Node(task);
+                nodes[count++] = node;
+                nodesById.put(node.id, node);
+            }
+        }
+        root = build(nodes, 0, count - 1);
+    }
+
+    public void clear() {
+        root = null;
+        nodesById.clear();
+    }
+
+    public int size() {
+        return nodesById.size();
+    }
+
+    /**
+     * Ищет любую проиндексированную задачу, пересекающуюся с интервалом [start, end)
+     *
+     * @param start     начало интервала
+     * @param end       конец интервала
+     * @param excludeId id задачи, которую нужно игнорировать (сама обновляемая задача)
+     * @return пересекающаяся задача или null
+     */
+    public Task findOverlap(LocalDateTime start, LocalDateTime end, int excludeId) {
+        Node node = findOverlap(root, start, end, excludeId);
+        return node != null ? node.task : null;
+    }
+
+    /**
+     * Собирает задачи, которые идут в интервале [from, to), по возрастанию (startTime, id).
+     * Задача нулевой длительности попадает в результат, если начинается внутри интервала.
+     * Поддеревья, закончившиеся до from, пропускаются, а обход останавливается на первом узле,
+     * который начинается не раньше to, поэтому запрос стоит O((k + 1) log n) для k найденных задач.
+     *
+     * @param limit сколько задач собрать самое большее
+     * @return проиндексированные задачи (не копии)
+     */
+    public List<Task> findOverlaps(LocalDateTime from, LocalDateTime to, int limit) {
+        List<Task> result = new ArrayList<>();
+        collectOverlaps(root, from, to, limit, result);
+        return result;
+    }
+
+    /**
+     * Ищет самое раннее время не раньше notBefore, с которого свободен интервал длиной duration.
+     * Задачи обходятся по возрастанию начала, начиная с той, что идёт в момент notBefore;
+     * кандидат сдвигается на конец каждой мешающей задачи, пока перед следующей не найдётся
+     * достаточный промежуток. Поддеревья, закончившиеся до кандидата, пропускаются,
+     * поэтому поиск стоит O(log n + k), где k - число задач, через которые пришлось перешагнуть.
+     *
+     * @return начало свободного интервала; после всех задач место есть всегда
+     * @throws IllegalArgumentException если интервал не помещается до {@link LocalDateTime#MAX}
+     */
+    public LocalDateTime findFreeSlot(LocalDateTime notBefore, Duration duration) {
+        LocalDateTime candidate = notBefore;
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        while (true) {
+            if (!fitsBeforeMax(candidate, duration)) {
+                throw new IllegalArgumentException("Свободного промежутка длительностью " + duration + " нет");
+            }
+            // Спускаемся влево только в поддеревья, которые ещё могут закрывать кандидата
+            while (node != null && node.maxEnd.isAfter(candidate)) {
+                path.push(node);
+                node = node.left;
+            }
+            if (path.isEmpty()) {
+                return candidate;
+            }
+            node = path.pop();
+            if (!node.start.isBefore(candidate.plus(duration))) {
+                return candidate;
+            }
+            if (node.end.isAfter(candidate)) {
+                candidate = node.end;
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * @return true, если start.plus(duration) не выходит за {@link LocalDateTime#MAX}
+     */
+    static boolean fitsBeforeMax(LocalDateTime start, Duration duration) {
+        return duration.compareTo(Duration.between(start, LocalDateTime.MAX)) <= 0;
+    }
+
+    /**
+     * @return false, если обход нужно прекратить: дошли до to или набрали limit задач
+     */
+    private static boolean collectOverlaps(Node node, LocalDateTime from, LocalDateTime to, int limit,
+                                           List<Task> result) {
+        if (node == null || node.maxEnd.isBefore(from)) {
+            return true;
+        }
+        if (!collectOverlaps(node.left, from, to, limit, result)) {
+            return false;
+        }
+        // Узел и всё, что правее, начинаются не раньше to
+        if (!node.start.isBefore(to)) {
+            return false;
+        }
+        if (node.end.isAfter(from) || !node.start.isBefore(from)) {
+            result.add(node.task);
+            if (result.size() >= limit) {
+                return false;
+            }
+        }
+        return collectOverlaps(node.right, from, to, limit, result);
+    }
+
+    private Node findOverlap(Node node, LocalDateTime start, LocalDateTime end, int excludeId) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return null;
+        }
+        Node found = findOverlap(node.left, start, end, excludeId);
+        if (found != null) {
+            return found;
+        }
+        // Узел и всё правое поддерево начинаются не раньше end
+        if (!node.start.isBefore(end)) {
+            return null;
+        }
+        if (node.id != excludeId && node.end.isAfter(start)) {
+            return node;
+        }
+        return findOverlap(node.right, start, end, excludeId);
+    }
+
+    /**
+     * Внутренний класс для узла дерева
+     */
+    private static class Node {
+        final Task task;
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        LocalDateTime maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(Task task) {
+            this.task = task;
+            this.id = task.getId();
+            this.start = task.getStartTime();
+            this.end = task.getEndTime();
+            this.maxEnd = end;
+        }
+    }
+
+    private static int compare(LocalDateTime start1, int id1, LocalDateTime start2, int id2) {
+        int timeComparison = start1.compareTo(start2);
+        return timeComparison != 0 ? timeComparison : Integer.compare(id1, id2);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node build(Node[] nodes, int from, int to) {
+        if (from > to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node node = nodes[middle];
+        node.left = build(nodes, from, middle - 1);
+        node.right = build(nodes, middle + 1, to);
+        update(node);
+        return node;
+    }
+
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode.start, newNode.id, node.start, node.id) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, LocalDateTime start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, id, node.start, node.id);
+        if (comparison < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+}
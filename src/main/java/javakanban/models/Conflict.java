@@ -0,0 +1,35 @@
+package javakanban.models;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Группа задач, связанных пересечениями по времени, и общий интервал, который они занимают
+ */
+public class Conflict {
+
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final List<Task> tasks;
+
+    public Conflict(LocalDateTime startTime, LocalDateTime endTime, List<Task> tasks) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.tasks = tasks;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * @return задачи группы по возрастанию времени начала
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+}
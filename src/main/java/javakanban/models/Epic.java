@@ -2,23 +2,29 @@ package javakanban.models;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class Epic extends Task {
 
-    private List<Integer> subtaskIds = new ArrayList<>();
+    // Множество с порядком добавления: удаление подзадачи не сканирует и не сдвигает список
+    private Set<Integer> subtaskIds = new LinkedHashSet<>();
 
     private LocalDateTime endTime;
 
+    // Не сериализуется: восстанавливается менеджером по подзадачам
+    private transient EpicAggregates aggregates;
+
     public Epic(String name, String description) {
         super(name, description);
-        this.subtaskIds = new ArrayList<>();
+        this.subtaskIds = new LinkedHashSet<>();
     }
 
     public Epic(String name, String description, Duration duration, LocalDateTime startTime) {
         super(name, description, duration, startTime);
-        this.subtaskIds = new ArrayList<>();
+        this.subtaskIds = new LinkedHashSet<>();
         this.endTime = null;
     }
 
@@ -36,13 +42,16 @@ public class Epic extends Task {
             return;
         }
         if (subtaskIds == null) {
-            subtaskIds = new ArrayList<>();
+            subtaskIds = new LinkedHashSet<>();
         }
         subtaskIds.add(subtaskId);
     }
 
+    /**
+     * @return id подзадач в порядке добавления; копия, изменения эпика в ней не видны
+     */
     public List<Integer> getSubtaskIds() {
-        return subtaskIds;
+        return subtaskIds == null ? List.of() : List.copyOf(subtaskIds);
     }
 
     @Override
@@ -51,7 +60,66 @@ public class Epic extends Task {
     }
 
     public void removeSubtaskId(int subtaskId) {
-        subtaskIds.remove(subtaskId);
+        if (subtaskIds != null) {
+            subtaskIds.remove(subtaskId);
+        }
+        aggregates().remove(subtaskId);
+        refreshFromAggregates();
+    }
+
+    /**
+     * Учитывает текущее состояние подзадачи (новой или изменённой) в статусе и времени эпика
+     *
+     * @param subtask подзадача этого эпика
+     */
+    public void applySubtask(Subtask subtask) {
+        aggregates().put(subtask);
+        refreshFromAggregates();
+    }
+
+    /**
+     * Заменяет все подзадачи эпика переданными и один раз пересчитывает статус и время.
+     * Используется при массовой загрузке вместо поочерёдного applySubtask.
+     *
+     * @param subtasks подзадачи этого эпика
+     */
+    public void setSubtasks(Collection<Subtask> subtasks) {
+        if (subtaskIds == null) {
+            subtaskIds = new LinkedHashSet<>();
+        }
+        subtaskIds.clear();
+        EpicAggregates aggregates = aggregates();
+        aggregates.clear();
+        for (Subtask subtask : subtasks) {
+            subtaskIds.add(subtask.getId());
+            aggregates.put(subtask);
+        }
+        refreshFromAggregates();
+    }
+
+    /**
+     * Отвязывает от эпика все подзадачи
+     */
+    public void clearSubtasks() {
+        if (subtaskIds != null) {
+            subtaskIds.clear();
+        }
+        aggregates().clear();
+        refreshFromAggregates();
+    }
+
+    private EpicAggregates aggregates() {
+        if (aggregates == null) {
+            aggregates = new EpicAggregates();
+        }
+        return aggregates;
+    }
+
+    private void refreshFromAggregates() {
+        setStatus(aggregates.status());
+        setStartTime(aggregates.earliestStart());
+        setDuration(aggregates.totalDuration());
+        endTime = aggregates.latestEnd();
     }
 
     @Override
@@ -59,7 +127,7 @@ public class Epic extends Task {
         Epic copy = new Epic(this.getName(), this.getDescription(), this.getDuration(), this.getStartTime());
         copy.setId(this.getId());
         copy.setStatus(this.getStatus());
-        copy.subtaskIds = new ArrayList<>(this.subtaskIds);
+        copy.subtaskIds = new LinkedHashSet<>(this.subtaskIds);
         copy.endTime = this.endTime;
         return copy;
     }
@@ -0,0 +1,110 @@
+package javakanban.models;
+
+import javakanban.utils.IntObjectMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Накопительные агрегаты подзадач эпика: счётчики статусов, суммарная длительность
+ * и упорядоченные мультимножества времён начала и окончания.
+ * Каждое изменение подзадачи обрабатывается за O(log k), без обхода всех подзадач эпика.
+ */
+class EpicAggregates {
+
+    private final IntObjectMap<Contribution> contributions = new IntObjectMap<>();
+    private final int[] statusCounts = new int[TaskStatus.values().length];
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+    private Duration totalDuration = Duration.ZERO;
+
+    /**
+     * Вклад подзадачи в агрегаты на момент последнего учёта.
+     * Хранится отдельно, потому что саму подзадачу могут изменить до того, как её вклад уберут.
+     */
+    private static class Contribution {
+        final TaskStatus status;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final Duration duration;
+
+        Contribution(Subtask subtask) {
+            this.status = subtask.getStatus();
+            this.start = subtask.getStartTime();
+            this.end = subtask.getEndTime();
+            this.duration = subtask.getDuration();
+        }
+    }
+
+    void put(Subtask subtask) {
+        remove(subtask.getId());
+        Contribution contribution = new Contribution(subtask);
+        contributions.put(subtask.getId(), contribution);
+
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]++;
+        }
+        if (contribution.start != null) {
+            increment(starts, contribution.start);
+            increment(ends, contribution.end);
+            totalDuration = totalDuration.plus(contribution.duration);
+        }
+    }
+
+    void remove(int subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) {
+            return;
+        }
+
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]--;
+        }
+        if (contribution.start != null) {
+            decrement(starts, contribution.start);
+            decrement(ends, contribution.end);
+            totalDuration = totalDuration.minus(contribution.duration);
+        }
+    }
+
+    void clear() {
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        starts.clear();
+        ends.clear();
+        totalDuration = Duration.ZERO;
+    }
+
+    TaskStatus status() {
+        int total = contributions.size();
+        if (total == 0 || statusCounts[TaskStatus.NEW.ordinal()] == total) {
+            return TaskStatus.NEW;
+        }
+        if (statusCounts[TaskStatus.DONE.ordinal()] == total) {
+            return TaskStatus.DONE;
+        }
+        return TaskStatus.IN_PROGRESS;
+    }
+
+    LocalDateTime earliestStart() {
+        return starts.isEmpty() ? null : starts.firstKey();
+    }
+
+    LocalDateTime latestEnd() {
+        return ends.isEmpty() ? null : ends.lastKey();
+    }
+
+    Duration totalDuration() {
+        return totalDuration;
+    }
+
+    private static void increment(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        multiset.merge(key, 1, Integer::sum);
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        multiset.computeIfPresent(key, (time, count) -> count > 1 ? count - 1 : null);
+    }
+}
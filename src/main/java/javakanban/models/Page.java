@@ -0,0 +1,34 @@
+package javakanban.models;
+
+import java.util.List;
+
+/**
+ * Страница списка и курсор, с которого начинается следующая
+ *
+ * @param <T> тип элементов
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return курсор следующей страницы или null, если это последняя страница
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
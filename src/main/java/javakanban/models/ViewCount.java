@@ -0,0 +1,23 @@
+package javakanban.models;
+
+/**
+ * Задача и оценка числа её просмотров
+ */
+public class ViewCount {
+
+    private final Task task;
+    private final long views;
+
+    public ViewCount(Task task, long views) {
+        this.task = task;
+        this.views = views;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public long getViews() {
+        return views;
+    }
+}
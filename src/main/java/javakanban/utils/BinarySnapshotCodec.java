@@ -0,0 +1,293 @@
+package javakanban.utils;
+
+import javakanban.models.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Двоичный формат снимка задач.
+ * <p>
+ * Заголовок (24 байта): магическое число "JKBS", версия (short), резерв (short),
+ * число записей (int), длина данных (long), CRC32 данных (int).
+ * <p>
+ * Запись: байт с типом (биты 0-1), статусом (биты 2-3) и флагами времени (биты 4-5),
+ * id (varint), имя и описание (varint длины + 1, затем UTF-8; 0 - null),
+ * длительность в минутах (varint), время начала в минутах от эпохи (zigzag varint),
+ * для подзадачи - id эпика (zigzag varint).
+ * Время с секундами хранит дополнительно секунды и наносекунды, чтобы не терять точность.
+ */
+public final class BinarySnapshotCodec {
+
+    public static final int MAGIC = 0x4A4B4253;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 24;
+
+    private static final int HAS_START = 1;
+    private static final int HAS_SECONDS = 2;
+
+    private BinarySnapshotCodec() {
+    }
+
+    /**
+     * Проверяет, начинаются ли данные с магического числа двоичного снимка
+     */
+    public static boolean isBinarySnapshot(ByteBuffer firstBytes) {
+        return firstBytes.remaining() >= 4 && firstBytes.getInt(firstBytes.position()) == MAGIC;
+    }
+
+    /**
+     * Записывает задачи в канал: сначала заголовок, затем данные
+     *
+     * @return число записанных байт
+     */
+    public static long write(WritableByteChannel channel, Collection<? extends Task> tasks) throws IOException {
+        Output output = new Output(Math.max(64, tasks.size() * 48));
+        for (Task task : tasks) {
+            writeTask(output, task);
+        }
+        ByteBuffer payload = ByteBuffer.wrap(output.bytes, 0, output.size);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) 0)
+                .putInt(tasks.size())
+                .putLong(output.size)
+                .putInt((int) crc.getValue())
+                .flip();
+
+        writeFully(channel, header);
+        writeFully(channel, payload);
+        return HEADER_SIZE + (long) output.size;
+    }
+
+    /**
+     * Читает снимок из канала, проверяя заголовок и контрольную сумму, и передаёт задачи по порядку
+     *
+     * @return число прочитанных записей
+     */
+    public static int read(ReadableByteChannel channel, Consumer<Task> sink) throws IOException {
+        ByteBuffer header = readFully(channel, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Файл не является двоичным снимком задач");
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия двоичного снимка: " + version);
+        }
+        header.getShort();
+        int count = header.getInt();
+        long length = header.getLong();
+        int checksum = header.getInt();
+        if (count < 0 || length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Повреждённый заголовок двоичного снимка");
+        }
+
+        ByteBuffer payload = readFully(channel, (int) length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Контрольная сумма двоичного снимка не совпадает");
+        }
+
+        for (int i = 0; i < count; i++) {
+            Task task;
+            try {
+                task = readTask(payload);
+            } catch (BufferUnderflowException e) {
+                // Контрольная сумма сошлась, но записей меньше, чем указано в заголовке
+                throw new IOException("Повреждённый двоичный снимок: данные кончились на записи " + i, e);
+            } catch (ArithmeticException | DateTimeException e) {
+                throw new IOException("Повреждённый двоичный снимок: недопустимое время в записи " + i, e);
+            }
+            sink.accept(task);
+        }
+        return count;
+    }
+
+    private static void writeTask(Output output, Task task) {
+        LocalDateTime start = task.getStartTime();
+        int flags = 0;
+        if (start != null) {
+            flags |= HAS_START;
+            if (start.getSecond() != 0 || start.getNano() != 0) {
+                flags |= HAS_SECONDS;
+            }
+        }
+        int status = task.getStatus() != null ? task.getStatus().ordinal() : 0;
+        output.writeByte(task.getType().ordinal() | status << 2 | flags << 4);
+        output.writeVarLong(task.getId());
+        output.writeString(task.getName());
+        output.writeString(task.getDescription());
+        output.writeVarLong(task.getDuration() != null ? task.getDuration().toMinutes() : 0);
+        if (start != null) {
+            output.writeVarLong(zigzag(Math.floorDiv(start.toEpochSecond(ZoneOffset.UTC), 60)));
+            if ((flags & HAS_SECONDS) != 0) {
+                output.writeVarLong(start.getSecond());
+                output.writeVarLong(start.getNano());
+            }
+        }
+        if (task instanceof Subtask) {
+            output.writeVarLong(zigzag(((Subtask) task).getEpicId()));
+        }
+    }
+
+    private static Task readTask(ByteBuffer input) throws IOException {
+        int header = input.get() & 0xFF;
+        TaskType type = valueAt(TaskType.values(), header & 0b11, "тип задачи");
+        TaskStatus status = valueAt(TaskStatus.values(), (header >>> 2) & 0b11, "статус задачи");
+        int flags = header >>> 4;
+
+        int id = (int) readVarLong(input);
+        String name = readString(input);
+        String description = readString(input);
+        Duration duration = Duration.ofMinutes(readVarLong(input));
+        LocalDateTime startTime = null;
+        if ((flags & HAS_START) != 0) {
+            long epochSecond = unzigzag(readVarLong(input)) * 60;
+            int nano = 0;
+            if ((flags & HAS_SECONDS) != 0) {
+                epochSecond += readVarLong(input);
+                nano = (int) readVarLong(input);
+            }
+            startTime = LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+        }
+
+        Task task;
+        switch (type) {
+            case TASK:
+                task = new Task(name, description, duration, startTime);
+                break;
+            case EPIC:
+                task = new Epic(name, description, duration, startTime);
+                break;
+            case SUBTASK:
+                int epicId = (int) unzigzag(readVarLong(input));
+                task = new Subtask(name, description, epicId, duration, startTime);
+                break;
+            default:
+                throw new IOException("Неизвестный тип задачи: " + type);
+        }
+        task.setId(id);
+        task.setStatus(status);
+        return task;
+    }
+
+    private static <T> T valueAt(T[] values, int index, String what) throws IOException {
+        if (index >= values.length) {
+            throw new IOException("Повреждённый двоичный снимок: неизвестный " + what + " " + index);
+        }
+        return values[index];
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(ByteBuffer input) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = input.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Повреждённое число в двоичном снимке");
+    }
+
+    private static String readString(ByteBuffer input) throws IOException {
+        long encoded = readVarLong(input);
+        if (encoded == 0) {
+            return null;
+        }
+        if (encoded < 0 || encoded - 1 > input.remaining()) {
+            throw new IOException("Повреждённый двоичный снимок: строка длиннее оставшихся данных");
+        }
+        int length = (int) (encoded - 1);
+        String value = new String(input.array(), input.arrayOffset() + input.position(), length,
+                StandardCharsets.UTF_8);
+        input.position(input.position() + length);
+        return value;
+    }
+
+    private static ByteBuffer readFully(ReadableByteChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Двоичный снимок обрывается раньше, чем указано в заголовке");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Растущий буфер записи: данные набираются целиком, чтобы посчитать длину и CRC для заголовка
+     */
+    private static class Output {
+        byte[] bytes;
+        int size;
+
+        Output(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(encoded.length + 1L);
+            ensureCapacity(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
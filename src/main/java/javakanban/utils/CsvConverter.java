@@ -3,6 +3,7 @@ package javakanban.utils;
 import javakanban.models.*;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.function.UnaryOperator;
 
 public class CsvConverter {
 
@@ -11,50 +12,81 @@ public class CsvConverter {
     }
 
     public static String toString(Task task) {
-        return String.format("%d,%s,%s,%s,%s,%s,%s",
-                task.getId(),
-                task.getType(),
-                task.getName(),
-                task.getStatus(),
-                task.getDescription(),
-                formatDuration(task.getDuration()),
-                formatDateTime(task.getStartTime()));
+        return format(task, UnaryOperator.identity());
     }
 
     public static String toString(Epic epic) {
-        return String.format("%d,%s,%s,%s,%s,%s,%s",
-                epic.getId(),
-                epic.getType(),
-                epic.getName(),
-                epic.getStatus(),
-                epic.getDescription(),
-                formatDuration(epic.getDuration()),
-                formatDateTime(epic.getStartTime()));
+        return format(epic, UnaryOperator.identity());
     }
 
     public static String toString(Subtask subtask) {
-        return String.format("%d,%s,%s,%s,%s,%s,%s,%d",
-                subtask.getId(),
-                subtask.getType(),
-                subtask.getName(),
-                subtask.getStatus(),
-                subtask.getDescription(),
-                formatDuration(subtask.getDuration()),
-                formatDateTime(subtask.getStartTime()),
-                subtask.getEpicId());
+        return format(subtask, UnaryOperator.identity());
+    }
+
+    /**
+     * Строка для журнала: в названии и описании экранируются обратная косая черта, запятая
+     * и переводы строк, поэтому запись всегда занимает одну строку и делится на поля по запятым
+     */
+    public static String toEscapedString(Task task) {
+        return format(task, CsvConverter::escape);
     }
 
     public static Task fromString(String value) {
-        String[] fields = value.split(",", -1);
+        return parse(value, UnaryOperator.identity());
+    }
+
+    /**
+     * Разбирает строку, записанную {@link #toEscapedString(Task)}
+     */
+    public static Task fromEscapedString(String value) {
+        return parse(value, CsvConverter::unescape);
+    }
+
+    private static String format(Task task, UnaryOperator<String> text) {
+        String line = String.format("%d,%s,%s,%s,%s,%s,%s",
+                task.getId(),
+                task.getType(),
+                text.apply(task.getName()),
+                task.getStatus(),
+                text.apply(task.getDescription()),
+                formatDuration(task.getDuration()),
+                formatDateTime(task.getStartTime()));
+        if (task instanceof Subtask) {
+            return line + "," + ((Subtask) task).getEpicId();
+        }
+        return line;
+    }
+
+    /**
+     * Разбирает строку CSV без промежуточного массива полей: поля читаются по позициям запятых
+     */
+    private static Task parse(String value, UnaryOperator<String> text) {
+        int end = fieldEnd(value, 0);
+        int id = Integer.parseInt(value, 0, end, 10);
+
+        int start = end + 1;
+        end = fieldEnd(value, start);
+        TaskType type = parseType(value, start, end);
+
+        start = end + 1;
+        end = fieldEnd(value, start);
+        String name = text.apply(value.substring(start, end));
+
+        start = end + 1;
+        end = fieldEnd(value, start);
+        TaskStatus status = parseStatus(value, start, end);
+
+        start = end + 1;
+        end = fieldEnd(value, start);
+        String description = text.apply(value.substring(start, end));
 
-        int id = Integer.parseInt(fields[0]);
-        TaskType type = TaskType.valueOf(fields[1]);
-        String name = fields[2];
-        TaskStatus status = TaskStatus.valueOf(fields[3]);
-        String description = fields[4];
+        start = end + 1;
+        end = fieldEnd(value, start);
+        Duration duration = parseDuration(value, start, end);
 
-        Duration duration = parseDuration(fields[5]);
-        LocalDateTime startTime = parseDateTime(fields[6]);
+        start = end + 1;
+        end = fieldEnd(value, start);
+        LocalDateTime startTime = parseDateTime(value, start, end);
 
         switch (type) {
             case TASK:
@@ -70,7 +102,14 @@ public class CsvConverter {
                 return epic;
 
             case SUBTASK:
-                int epicId = fields.length > 7 && !fields[7].isEmpty() ? Integer.parseInt(fields[7]) : -1;
+                int epicId = -1;
+                if (end < value.length()) {
+                    start = end + 1;
+                    end = fieldEnd(value, start);
+                    if (end > start) {
+                        epicId = Integer.parseInt(value, start, end, 10);
+                    }
+                }
                 Subtask subtask = new Subtask(name, description, epicId, duration, startTime);
                 subtask.setId(id);
                 subtask.setStatus(status);
@@ -81,6 +120,47 @@ public class CsvConverter {
         }
     }
 
+    private static int fieldEnd(String value, int start) {
+        int comma = value.indexOf(',', start);
+        return comma >= 0 ? comma : value.length();
+    }
+
+    private static TaskType parseType(String value, int start, int end) {
+        for (TaskType type : TaskType.values()) {
+            if (matches(value, start, end, type.name())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный тип задачи: " + value.substring(start, end));
+    }
+
+    private static TaskStatus parseStatus(String value, int start, int end) {
+        for (TaskStatus status : TaskStatus.values()) {
+            if (matches(value, start, end, status.name())) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный статус задачи: " + value.substring(start, end));
+    }
+
+    private static boolean matches(String value, int start, int end, String constant) {
+        return end - start == constant.length() && value.regionMatches(start, constant, 0, constant.length());
+    }
+
+    private static Duration parseDuration(String value, int start, int end) {
+        if (start >= end) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMinutes(Long.parseLong(value, start, end, 10));
+    }
+
+    private static LocalDateTime parseDateTime(String value, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        return LocalDateTime.parse(value.subSequence(start, end));
+    }
+
     private static String formatDuration(Duration duration) {
         if (duration == null || duration.isZero()) {
             return "";
@@ -95,17 +175,53 @@ public class CsvConverter {
         return dateTime.toString();
     }
 
-    private static Duration parseDuration(String durationStr) {
-        if (durationStr == null || durationStr.isEmpty()) {
-            return Duration.ZERO;
+    private static String escape(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '\\' -> "\\\\";
+                case ',' -> "\\c";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                default -> null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
         }
-        return Duration.ofMinutes(Long.parseLong(durationStr));
+        return escaped != null ? escaped.toString() : value;
     }
 
-    private static LocalDateTime parseDateTime(String dateTimeStr) {
-        if (dateTimeStr == null || dateTimeStr.isEmpty()) {
-            return null;
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                unescaped.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            switch (next) {
+                case 'c' -> unescaped.append(',');
+                case 'n' -> unescaped.append('\n');
+                case 'r' -> unescaped.append('\r');
+                default -> unescaped.append(next);
+            }
         }
-        return LocalDateTime.parse(dateTimeStr);
+        return unescaped.toString();
     }
-}
\ No newline at end of file
+}
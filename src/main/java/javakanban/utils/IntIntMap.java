@@ -0,0 +1,151 @@
+package javakanban.utils;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица int -&gt; int с открытой адресацией, устроенная так же, как {@link IntObjectMap}.
+ * Значения должны быть неотрицательными: -1 возвращается для отсутствующего ключа
+ * и используется внутри как признак пустой ячейки.
+ */
+public class IntIntMap {
+
+    public static final int MISSING = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+    private int threshold;
+
+    public IntIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntIntMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return values[indexOf(key)] != MISSING;
+    }
+
+    /**
+     * @return значение по ключу или {@link #MISSING}
+     */
+    public int get(int key) {
+        return values[indexOf(key)];
+    }
+
+    /**
+     * Сохраняет значение по ключу
+     *
+     * @return предыдущее значение или {@link #MISSING}
+     */
+    public int put(int key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("IntIntMap хранит только неотрицательные значения");
+        }
+        int index = indexOf(key);
+        int previous = values[index];
+        if (previous == MISSING) {
+            keys[index] = key;
+            if (++size > threshold) {
+                values[index] = value;
+                rehash(keys.length << 1);
+                return MISSING;
+            }
+        }
+        values[index] = value;
+        return previous;
+    }
+
+    /**
+     * Удаляет значение по ключу
+     *
+     * @return удалённое значение или {@link #MISSING}
+     */
+    public int remove(int key) {
+        int index = indexOf(key);
+        int previous = values[index];
+        if (previous == MISSING) {
+            return MISSING;
+        }
+        shiftBack(index);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(values, MISSING);
+        size = 0;
+    }
+
+    private static int hash(int key) {
+        return key ^ (key >>> 16);
+    }
+
+    private int indexOf(int key) {
+        int index = hash(key) & mask;
+        while (values[index] != MISSING && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void shiftBack(int hole) {
+        int current = hole;
+        while (true) {
+            current = (current + 1) & mask;
+            if (values[current] == MISSING) {
+                break;
+            }
+            int home = hash(keys[current]) & mask;
+            boolean reachable = hole <= current
+                    ? hole < home && home <= current
+                    : hole < home || home <= current;
+            if (!reachable) {
+                keys[hole] = keys[current];
+                values[hole] = values[current];
+                hole = current;
+            }
+        }
+        values[hole] = MISSING;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != MISSING) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR) + 1) - 1) << 1;
+        return Math.max(capacity, 2);
+    }
+}
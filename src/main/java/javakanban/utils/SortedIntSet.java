@@ -0,0 +1,111 @@
+package javakanban.utils;
+
+import java.util.Arrays;
+
+/**
+ * Упорядоченное множество int в одном отсортированном массиве.
+ * Рассчитано на id, которые выдаются по возрастанию: добавление нового максимума - O(1),
+ * поиск позиции - двоичный, удаление сдвигает хвост массива.
+ * Нужно для постраничного обхода хранилища по возрастанию id.
+ */
+public class SortedIntSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] values;
+    private int size;
+
+    public SortedIntSet() {
+        values = new int[DEFAULT_CAPACITY];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return значение на позиции index (0 - наименьшее)
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Индекс " + index + ", размер " + size);
+        }
+        return values[index];
+    }
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    /**
+     * @return true, если значения ещё не было
+     */
+    public boolean add(int value) {
+        if (size > 0 && values[size - 1] < value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+            return true;
+        }
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true, если значение было и удалено
+     */
+    public boolean remove(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return позиция первого значения больше value или size(), если таких нет
+     */
+    public int indexAfter(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Заменяет содержимое значениями из массива (порядок и повторы не важны).
+     * Массив сортируется на месте и становится внутренним хранилищем множества.
+     */
+    public void rebuild(int[] array) {
+        Arrays.sort(array);
+        int unique = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (i == 0 || array[i] != array[unique - 1]) {
+                array[unique++] = array[i];
+            }
+        }
+        values = array.length >= DEFAULT_CAPACITY ? array : Arrays.copyOf(array, DEFAULT_CAPACITY);
+        size = unique;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, required));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package javakanban.benchmarks;
+
+import com.google.gson.Gson;
+import javakanban.http.ContentEncoding;
+import javakanban.http.HttpTaskServer;
+import javakanban.models.Epic;
+import javakanban.models.Subtask;
+import javakanban.models.Task;
+import javakanban.models.TaskStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Сжатие JSON-ответов: размер, время процессора и итоговое время передачи на разных скоростях канала.
+ * Запуск: java javakanban.benchmarks.CompressionBenchmark [количество задач]
+ */
+public class CompressionBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 50;
+    private static final int[] LEVELS = {Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION};
+    // Скорости канала, Мбит/с
+    private static final int[] LINKS = {10, 100, 1000};
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        byte[] json = payload(HttpTaskServer.createGson(), count);
+        System.out.printf("Задач: %,d, JSON: %,d байт%n", count, json.length);
+        System.out.printf("%-8s %-7s %12s %8s %12s", "формат", "уровень", "размер", "доля", "сжатие, мс");
+        for (int link : LINKS) {
+            System.out.printf(" %14s", "итог " + link + " Мбит");
+        }
+        System.out.println();
+
+        report(ContentEncoding.IDENTITY, 0, json);
+        for (ContentEncoding encoding : List.of(ContentEncoding.GZIP, ContentEncoding.DEFLATE)) {
+            for (int level : LEVELS) {
+                report(encoding, level, json);
+            }
+        }
+    }
+
+    private static void report(ContentEncoding encoding, int level, byte[] json) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            compress(encoding, level, json);
+        }
+        long start = System.nanoTime();
+        int size = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            size = compress(encoding, level, json);
+        }
+        double cpuMillis = (System.nanoTime() - start) / 1e6 / ROUNDS;
+
+        System.out.printf("%-8s %-7s %,12d %7.1f%% %12.2f", encoding.getToken(),
+                levelName(encoding, level), size,
+                100.0 * size / json.length, cpuMillis);
+        for (int link : LINKS) {
+            double transferMillis = size * 8.0 / (link * 1_000_000.0) * 1000;
+            System.out.printf(" %11.2f мс", cpuMillis + transferMillis);
+        }
+        System.out.println();
+    }
+
+    private static String levelName(ContentEncoding encoding, int level) {
+        if (encoding == ContentEncoding.IDENTITY) {
+            return "-";
+        }
+        return level == Deflater.DEFAULT_COMPRESSION ? "6" : String.valueOf(level);
+    }
+
+    private static int compress(ContentEncoding encoding, int level, byte[] json) throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream(json.length);
+        try (OutputStream out = encoding.wrap(target, level)) {
+            out.write(json);
+        }
+        return target.size();
+    }
+
+    /**
+     * Доска, похожая на настоящую: задачи, эпики и подзадачи со временем, статусами и описаниями
+     */
+    private static byte[] payload(Gson gson, int count) {
+        List<Task> board = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        TaskStatus[] statuses = TaskStatus.values();
+        int epicId = 0;
+        for (int i = 1; i <= count; i++) {
+            Task task;
+            if (i % 10 == 1) {
+                task = new Epic("Эпик " + i, "Релиз " + (i / 10) + ": доработки интерфейса и API");
+                epicId = i;
+            } else if (i % 3 == 0) {
+                task = new Subtask("Подзадача " + i, "Проверить сценарий " + i + " и обновить тесты",
+                        epicId, Duration.ofMinutes(15 + i % 4 * 15), start.plusMinutes(i * 90L));
+            } else {
+                task = new Task("Задача " + i, "Исправить ошибку #" + (1000 + i) + " в модуле отчётов",
+                        Duration.ofMinutes(30 + i % 5 * 10), start.plusMinutes(i * 90L));
+            }
+            task.setId(i);
+            task.setStatus(statuses[i % statuses.length]);
+            board.add(task);
+        }
+        return gson.toJson(board).getBytes(StandardCharsets.UTF_8);
+    }
+}
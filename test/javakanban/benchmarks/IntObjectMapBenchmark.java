@@ -0,0 +1,70 @@
+package javakanban.benchmarks;
+
+import javakanban.models.Task;
+import javakanban.utils.IntObjectMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Сравнение IntObjectMap с HashMap&lt;Integer, Task&gt;: занимаемая память и время поиска.
+ * Запуск: java -Xmx2g javakanban.benchmarks.IntObjectMapBenchmark [количество записей]
+ */
+public class IntObjectMapBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Task value = new Task("Task", "Description");
+
+        System.out.printf("Записей: %,d%n", count);
+
+        long before = usedMemory();
+        Map<Integer, Task> hashMap = new HashMap<>();
+        for (int id = 1; id <= count; id++) {
+            hashMap.put(id, value);
+        }
+        long hashMapBytes = usedMemory() - before;
+
+        before = usedMemory();
+        IntObjectMap<Task> intMap = new IntObjectMap<>();
+        for (int id = 1; id <= count; id++) {
+            intMap.put(id, value);
+        }
+        long intMapBytes = usedMemory() - before;
+
+        System.out.printf("Память  HashMap: %,d байт (%.1f на запись)%n", hashMapBytes, (double) hashMapBytes / count);
+        System.out.printf("Память  IntObjectMap: %,d байт (%.1f на запись)%n", intMapBytes, (double) intMapBytes / count);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (int id = 1; id <= count; id++) {
+                if (hashMap.get(id) != null) {
+                    found++;
+                }
+            }
+            long hashMapNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int id = 1; id <= count; id++) {
+                if (intMap.get(id) != null) {
+                    found++;
+                }
+            }
+            long intMapNanos = System.nanoTime() - start;
+
+            System.out.printf("Раунд %d: get HashMap %.1f нс/оп, IntObjectMap %.1f нс/оп (%d)%n", round,
+                    (double) hashMapNanos / count, (double) intMapNanos / count, found);
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
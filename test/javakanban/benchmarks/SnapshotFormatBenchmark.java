@@ -0,0 +1,69 @@
+package javakanban.benchmarks;
+
+import javakanban.manager.task.FileBackedTaskManager;
+import javakanban.manager.task.SnapshotFormat;
+import javakanban.manager.task.StorageSettings;
+import javakanban.models.Epic;
+import javakanban.models.Subtask;
+import javakanban.models.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Сравнение CSV и двоичного снимка: размер файла, время сохранения и загрузки.
+ * Запуск: java javakanban.benchmarks.SnapshotFormatBenchmark [количество задач]
+ */
+public class SnapshotFormatBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        System.out.printf("Задач: %,d%n", count);
+
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            File file = Files.createTempFile("snapshot", "." + format.name().toLowerCase()).toFile();
+            file.deleteOnExit();
+            StorageSettings settings = StorageSettings.journal()
+                    .withCompactionThreshold(Integer.MAX_VALUE)
+                    .withSnapshotFormat(format);
+
+            try (FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, settings)) {
+                fill(manager, count);
+                for (int round = 1; round <= ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    manager.checkpoint();
+                    long saveNanos = System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+                    long loadNanos = System.nanoTime() - start;
+
+                    System.out.printf("%s раунд %d: размер %,d байт, сохранение %d мс, загрузка %d мс (%s)%n",
+                            format, round, file.length(), saveNanos / 1_000_000, loadNanos / 1_000_000,
+                            loaded.getLoadStats());
+                    loaded.close();
+                }
+            }
+            new File(file.getPath() + ".log").delete();
+        }
+    }
+
+    private static void fill(FileBackedTaskManager manager, int count) {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        Epic epic = manager.createEpic(new Epic("Эпик", "Описание эпика"));
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                manager.createTask(new Task("Задача " + i, "Описание задачи " + i,
+                        Duration.ofMinutes(30), start.plusHours(i)));
+            } else {
+                manager.createSubtask(new Subtask("Подзадача " + i, "Описание подзадачи " + i, epic.getId(),
+                        Duration.ofMinutes(30), start.plusHours(i)));
+            }
+        }
+    }
+}
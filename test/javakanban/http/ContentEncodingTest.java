@@ -0,0 +1,60 @@
+package javakanban.http;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentEncodingTest {
+
+    @Test
+    @DisplayName("Без Accept-Encoding ответ не сжимается")
+    void negotiate_identityWithoutHeader() {
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate(null));
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("br"));
+    }
+
+    @Test
+    @DisplayName("gzip предпочитается deflate, если веса равны")
+    void negotiate_prefersGzip() {
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("deflate, gzip"));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("*"));
+    }
+
+    @Test
+    @DisplayName("Учитываются q-значения, q=0 запрещает кодирование")
+    void negotiate_respectsQuality() {
+        assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0.5, deflate"));
+        assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0, *"));
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("gzip;q=0, deflate;q=0"));
+    }
+
+    @Test
+    @DisplayName("Сжатые gzip и deflate данные распаковываются в исходные")
+    void wrap_roundTrip() throws IOException {
+        byte[] data = "{\"name\":\"Задача\"},".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream out = encoding.wrap(compressed, ContentEncoding.DEFAULT_LEVEL)) {
+                out.write(data);
+            }
+            InputStream in = new ByteArrayInputStream(compressed.toByteArray());
+            if (encoding == ContentEncoding.GZIP) {
+                in = new GZIPInputStream(in);
+            } else if (encoding == ContentEncoding.DEFLATE) {
+                in = new InflaterInputStream(in);
+            }
+            assertArrayEquals(data, in.readAllBytes());
+        }
+    }
+}
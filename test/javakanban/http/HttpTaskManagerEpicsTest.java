@@ -152,6 +152,29 @@ class HttpTaskManagerEpicsTest extends HttpBaseTest{
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
 
         assertEquals(404, response.statusCode());
+        assertTrue(response.headers().firstValue("ETag").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Удалённый эпик не отдаёт 304 по старому ETag")
+    void testGetEpicSubtasksNotFound_ignoresIfNoneMatch() throws IOException, InterruptedException {
+        Epic epic = manager.createEpic(new Epic("Эпик", "Описание"));
+        Epic other = manager.createEpic(new Epic("Другой эпик", "Описание"));
+        manager.deleteEpicById(epic.getId());
+        HttpResponse<String> current = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/epics/" + other.getId() + "/subtasks"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String etag = current.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/epics/" + epic.getId() + "/subtasks"))
+                .header("If-None-Match", etag)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(404, response.statusCode());
+        assertTrue(response.headers().firstValue("ETag").isEmpty());
     }
 
     @Test
@@ -1,8 +1,11 @@
 package javakanban.http;
 
+import javakanban.manager.history.PartitionedHistoryManager;
+import javakanban.manager.task.InMemoryTaskManager;
 import javakanban.models.Epic;
 import javakanban.models.Subtask;
 import javakanban.models.Task;
+import javakanban.models.ViewCount;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -171,4 +174,83 @@ class HttpTaskManagerHistoryTest extends HttpBaseTest{
 
         assertEquals(405, response.statusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Клиенты с разными X-Client-Id получают каждый свою историю")
+    void testHistoryIsSeparatedByClientHeader() throws IOException, InterruptedException {
+        taskServer.stop();
+        manager = new InMemoryTaskManager(new PartitionedHistoryManager());
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+        Task task1 = manager.createTask(new Task("Задача 1", "Описание 1"));
+        Task task2 = manager.createTask(new Task("Задача 2", "Описание 2"));
+
+        client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/" + task1.getId()))
+                .header(BaseHttpHandler.CLIENT_ID_HEADER, "alice")
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+        client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/" + task2.getId()))
+                .header(BaseHttpHandler.CLIENT_ID_HEADER, "bob")
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .header(BaseHttpHandler.CLIENT_ID_HEADER, "alice")
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        Task[] history = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, history.length);
+        assertEquals("Задача 1", history[0].getName());
+    }
+
+    @Test
+    @DisplayName("GET /history/top?k=N возвращает самые просматриваемые задачи")
+    void testGetTopViewed() throws IOException, InterruptedException {
+        Task task1 = manager.createTask(new Task("Задача 1", "Описание 1"));
+        Task task2 = manager.createTask(new Task("Задача 2", "Описание 2"));
+        manager.getTaskById(task1.getId());
+        manager.getTaskById(task2.getId());
+        manager.getTaskById(task2.getId());
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history/top?k=1"))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        ViewCount[] top = gson.fromJson(response.body(), ViewCount[].class);
+        assertEquals(1, top.length);
+        assertEquals("Задача 2", top[0].getTask().getName());
+        assertEquals(2, top[0].getViews());
+
+        HttpResponse<String> badRequest = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history/top?k=abc"))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, badRequest.statusCode());
+    }
+
+    @Test
+    @DisplayName("ETag истории меняется после просмотра задачи")
+    void testHistoryEtagChangesAfterView() throws IOException, InterruptedException {
+        Task task = manager.createTask(new Task("Задача", "Описание"));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .GET()
+                .build();
+        String etag = client.send(request, HttpResponse.BodyHandlers.ofString())
+                .headers().firstValue("ETag").orElseThrow();
+
+        HttpRequest conditional = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .header("If-None-Match", etag)
+                .GET()
+                .build();
+        assertEquals(304, client.send(conditional, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        manager.getTaskById(task.getId());
+        HttpResponse<String> response = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(1, gson.fromJson(response.body(), Task[].class).length);
+    }
+}
@@ -10,6 +10,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -91,4 +92,101 @@ class HttpTaskManagerPrioritizedTest extends HttpBaseTest {
 
         assertEquals(405, response.statusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Задачи за интервал времени и ошибка при некорректном времени")
+    void testPrioritizedTimeRange() throws IOException, InterruptedException {
+        manager.createTask(new Task("Утренняя", "Описание",
+                Duration.ofMinutes(60), LocalDateTime.of(2024, 1, 15, 9, 0)));
+        manager.createTask(new Task("Дневная", "Описание",
+                Duration.ofMinutes(120), LocalDateTime.of(2024, 1, 15, 14, 0)));
+        manager.createTask(new Task("Вечерняя", "Описание",
+                Duration.ofMinutes(90), LocalDateTime.of(2024, 1, 15, 18, 0)));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=2024-01-15T09:30&to=2024-01-15T15:00"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(2, tasks.length);
+        assertEquals("Утренняя", tasks[0].getName());
+        assertEquals("Дневная", tasks[1].getName());
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=2024-01-15T10:00&limit=1"))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, tasks.length);
+        assertEquals("Дневная", tasks[0].getName());
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=вчера"))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    @DisplayName("Поиск свободного времени и автоматическая расстановка задач")
+    void testFreeSlotAndSchedule() throws IOException, InterruptedException {
+        manager.createTask(new Task("Утренняя", "Описание",
+                Duration.ofMinutes(60), LocalDateTime.of(2024, 1, 15, 9, 0)));
+        Task unscheduled = manager.createTask(new Task("Без времени", "Описание",
+                Duration.ofMinutes(30), null));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/free-slot?duration=30&from=2024-01-15T09:30"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"startTime\":\"2024-01-15T10:00"));
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/schedule"))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"ids\":[" + unscheduled.getId() + "],\"from\":\"2024-01-15T09:00:00\"}"))
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        Task[] scheduled = gson.fromJson(response.body(), Task[].class);
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 0), scheduled[0].getStartTime());
+
+        for (String duration : List.of(String.valueOf(Long.MAX_VALUE), "999999999999999")) {
+            request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/prioritized/free-slot?duration=" + duration))
+                    .GET()
+                    .build();
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(400, response.statusCode());
+        }
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 0), manager.getTaskById(unscheduled.getId()).getStartTime());
+    }
+
+    @Test
+    @DisplayName("Отчёт о пересечениях пуст, если задачи не пересекаются")
+    void testConflictsEmptyWithoutOverlaps() throws IOException, InterruptedException {
+        manager.createTask(new Task("Утренняя", "Описание",
+                Duration.ofMinutes(60), LocalDateTime.of(2024, 1, 15, 9, 0)));
+        manager.createTask(new Task("Дневная", "Описание",
+                Duration.ofMinutes(60), LocalDateTime.of(2024, 1, 15, 10, 0)));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/conflicts"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("[]", response.body());
+    }
+}
@@ -5,13 +5,17 @@ import javakanban.models.Task;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -154,4 +158,92 @@ class HttpTaskManagerTasksTest extends HttpBaseTest{
 
         assertEquals(405, response.statusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Повторный GET с If-None-Match получает 304, пока задачи не изменились")
+    void testConditionalGetReturnsNotModified() throws IOException, InterruptedException {
+        manager.createTask(new Task("Задача", "Описание"));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+        HttpResponse<String> first = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        HttpRequest conditional = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("If-None-Match", etag)
+                .GET()
+                .build();
+        HttpResponse<String> notModified = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, first.statusCode());
+        assertEquals(304, notModified.statusCode());
+        assertTrue(notModified.body().isEmpty());
+
+        manager.createTask(new Task("Новая задача", "Описание"));
+        HttpResponse<String> changed = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, changed.statusCode());
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow());
+        assertEquals(2, gson.fromJson(changed.body(), Task[].class).length);
+    }
+
+    @Test
+    @DisplayName("Большой список сжимается gzip, если клиент его принимает, маленький - нет")
+    void testGzipCompressionAboveThreshold() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        HttpResponse<byte[]> small = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertTrue(small.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals("[]", new String(small.body(), StandardCharsets.UTF_8));
+
+        for (int i = 0; i < 100; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание задачи " + i));
+        }
+        HttpResponse<byte[]> large = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals("gzip", large.headers().firstValue("Content-Encoding").orElse(null));
+        String json;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(large.body()))) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(100, gson.fromJson(json, Task[].class).length);
+        assertTrue(large.body().length < json.length() / 2);
+    }
+
+    @Test
+    @DisplayName("Постраничная выдача задач: limit, cursor и заголовок X-Next-Cursor")
+    void testGetTasksPage() throws IOException, InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание"));
+        }
+
+        HttpResponse<String> first = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?limit=2"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String cursor = first.headers().firstValue(BaseHttpHandler.NEXT_CURSOR_HEADER).orElseThrow();
+        HttpResponse<String> second = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?limit=2&cursor=" + cursor))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(2, gson.fromJson(first.body(), Task[].class).length);
+        Task[] rest = gson.fromJson(second.body(), Task[].class);
+        assertEquals(1, rest.length);
+        assertEquals("Задача 2", rest[0].getName());
+        assertTrue(second.headers().firstValue(BaseHttpHandler.NEXT_CURSOR_HEADER).isEmpty());
+
+        HttpResponse<String> invalid = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?limit=0"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, invalid.statusCode());
+    }
+}
@@ -0,0 +1,132 @@
+package javakanban.http;
+
+import javakanban.manager.history.InMemoryHistoryManager;
+import javakanban.manager.task.ConcurrentTaskManager;
+import javakanban.models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTaskServerExecutorTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final CountDownLatch requestStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseRequest = new CountDownLatch(1);
+    private HttpTaskServer taskServer;
+
+    /**
+     * Менеджер, у которого получение списка задач "зависает" до команды теста
+     */
+    private class SlowTaskManager extends ConcurrentTaskManager {
+        SlowTaskManager() {
+            super(new InMemoryHistoryManager());
+        }
+
+        @Override
+        public List<Task> getAllTasks() {
+            requestStarted.countDown();
+            try {
+                releaseRequest.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getAllTasks();
+        }
+    }
+
+    @AfterEach
+    void shutDown() {
+        releaseRequest.countDown();
+        if (taskServer != null) {
+            taskServer.stop();
+        }
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET()
+                .build();
+    }
+
+    @Test
+    @DisplayName("Медленный запрос не блокирует остальные в режиме пула потоков")
+    void boundedPool_servesRequestsWhileOneIsSlow() throws Exception {
+        taskServer = new HttpTaskServer(new SlowTaskManager(), ExecutorMode.BOUNDED_POOL, 2, 4);
+        taskServer.start();
+
+        CompletableFuture<HttpResponse<String>> slow =
+                client.sendAsync(request("/tasks"), HttpResponse.BodyHandlers.ofString());
+        assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+
+        HttpResponse<String> fast = client.send(request("/history"), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, fast.statusCode());
+
+        releaseRequest.countDown();
+        assertEquals(200, slow.get(5, TimeUnit.SECONDS).statusCode());
+    }
+
+    @Test
+    @DisplayName("При переполнении очереди сервер отвечает 503")
+    void boundedPool_returns503_whenQueueIsFull() throws Exception {
+        taskServer = new HttpTaskServer(new SlowTaskManager(), ExecutorMode.BOUNDED_POOL, 1, 0);
+        taskServer.start();
+
+        CompletableFuture<HttpResponse<String>> slow =
+                client.sendAsync(request("/tasks"), HttpResponse.BodyHandlers.ofString());
+        assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+
+        HttpResponse<String> rejected = client.send(request("/history"), HttpResponse.BodyHandlers.ofString());
+        assertEquals(503, rejected.statusCode());
+
+        releaseRequest.countDown();
+        assertEquals(200, slow.get(5, TimeUnit.SECONDS).statusCode());
+    }
+
+    @Test
+    @DisplayName("В режиме виртуальных потоков сверх лимита одновременных запросов приходит 503")
+    void virtualThreads_returns503_overConcurrencyLimit() throws Exception {
+        taskServer = new HttpTaskServer(new SlowTaskManager(), ExecutorMode.VIRTUAL_THREADS, 1, 1);
+        taskServer.start();
+
+        CompletableFuture<HttpResponse<String>> slow =
+                client.sendAsync(request("/tasks"), HttpResponse.BodyHandlers.ofString());
+        assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+
+        assertEquals(503, client.send(request("/history"), HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        releaseRequest.countDown();
+        assertEquals(200, slow.get(5, TimeUnit.SECONDS).statusCode());
+    }
+
+    @Test
+    @DisplayName("stop() дожидается завершения начатых запросов")
+    void stop_drainsInFlightRequests() throws Exception {
+        taskServer = new HttpTaskServer(new SlowTaskManager(), ExecutorMode.BOUNDED_POOL, 2, 4);
+        taskServer.start();
+
+        CompletableFuture<HttpResponse<String>> slow =
+                client.sendAsync(request("/tasks"), HttpResponse.BodyHandlers.ofString());
+        assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> stopped = CompletableFuture.runAsync(taskServer::stop);
+        Thread.sleep(200);
+        assertFalse(stopped.isDone(), "Сервер не должен останавливаться, пока запрос в обработке");
+
+        releaseRequest.countDown();
+        assertEquals(200, slow.get(5, TimeUnit.SECONDS).statusCode());
+        stopped.get(5, TimeUnit.SECONDS);
+        taskServer = null;
+    }
+}
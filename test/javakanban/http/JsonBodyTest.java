@@ -0,0 +1,51 @@
+package javakanban.http;
+
+import com.google.gson.Gson;
+import javakanban.models.Epic;
+import javakanban.models.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonBodyTest {
+
+    private final Gson gson = HttpTaskServer.createGson();
+
+    private static String write(JsonBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Потоковая сериализация даёт тот же JSON, что и gson.toJson")
+    void stream_matchesToJson() throws IOException {
+        List<Task> tasks = List.of(
+                new Task("Задача", "Описание", Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 15, 10, 0)),
+                new Epic("Эпик", null));
+
+        JsonBody body = JsonBody.stream(gson, tasks);
+
+        assertEquals(0, body.length());
+        assertEquals(gson.toJson(tasks), write(body));
+    }
+
+    @Test
+    @DisplayName("Готовые байты отправляются с известной длиной")
+    void of_reportsLength() throws IOException {
+        byte[] json = "[\"значение\"]".getBytes(StandardCharsets.UTF_8);
+
+        JsonBody body = JsonBody.of(json);
+
+        assertEquals(json.length, body.length());
+        assertEquals("[\"значение\"]", write(body));
+    }
+}
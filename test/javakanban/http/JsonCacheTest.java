@@ -0,0 +1,115 @@
+package javakanban.http;
+
+import com.google.gson.Gson;
+import javakanban.manager.Managers;
+import javakanban.manager.task.BoardCollection;
+import javakanban.manager.task.TaskManager;
+import javakanban.models.Epic;
+import javakanban.models.Subtask;
+import javakanban.models.Task;
+import javakanban.models.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonCacheTest {
+
+    private TaskManager manager;
+    private Gson gson;
+    private JsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        manager = Managers.getDefault();
+        gson = HttpTaskServer.createGson();
+        cache = new JsonCache(manager, gson);
+    }
+
+    private static String write(JsonBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private String tasksJson() throws IOException {
+        return write(cache.collection(BoardCollection.TASKS, manager::getAllTasks));
+    }
+
+    @Test
+    @DisplayName("Собранный из фрагментов ответ совпадает с сериализацией всего списка")
+    void collection_matchesGsonOutput() throws IOException {
+        manager.createTask(new Task("Задача 1", "Описание"));
+        manager.createTask(new Task("Задача 2", "Описание"));
+
+        assertEquals(gson.toJson(manager.getAllTasks()), tasksJson());
+    }
+
+    @Test
+    @DisplayName("Пока набор не менялся, ответ отдаётся из кеша")
+    void collection_isReusedUntilChanged() throws IOException {
+        manager.createTask(new Task("Задача", "Описание"));
+
+        String first = tasksJson();
+        JsonBody second = cache.collection(BoardCollection.TASKS, manager::getAllTasks);
+
+        assertEquals(first.getBytes(StandardCharsets.UTF_8).length, second.length());
+        assertEquals(first, write(second));
+        assertEquals(1, cache.getResponseHits());
+        assertEquals(1, cache.getResponseMisses());
+    }
+
+    @Test
+    @DisplayName("После изменения заново сериализуется только изменённая задача")
+    void collection_reserializesOnlyChangedEntity() throws IOException {
+        manager.createTask(new Task("Задача 1", "Описание"));
+        Task changed = manager.createTask(new Task("Задача 2", "Описание"));
+        manager.createTask(new Task("Задача 3", "Описание"));
+        tasksJson();
+
+        changed.setStatus(TaskStatus.DONE);
+        manager.updateTask(changed);
+        String json = tasksJson();
+
+        assertEquals(gson.toJson(manager.getAllTasks()), json);
+        assertEquals(2, cache.getFragmentHits());
+        assertEquals(4, cache.getFragmentMisses());
+    }
+
+    @Test
+    @DisplayName("Изменение подзадачи сбрасывает фрагмент её эпика")
+    void subtaskChange_invalidatesEpicFragment() throws IOException {
+        Epic epic = manager.createEpic(new Epic("Эпик", "Описание"));
+        Subtask subtask = manager.createSubtask(new Subtask("Подзадача", "Описание", epic.getId()));
+        write(cache.collection(BoardCollection.EPICS, manager::getAllEpics));
+
+        subtask.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask);
+        String json = write(cache.collection(BoardCollection.EPICS, manager::getAllEpics));
+
+        assertTrue(json.contains("\"DONE\""));
+        assertEquals(gson.toJson(manager.getAllEpics()), json);
+    }
+
+    @Test
+    @DisplayName("Ответ больше лимита отправляется из фрагментов, но целиком не кешируется")
+    void largeCollection_isStreamedWithoutCachingResponse() throws IOException {
+        String description = "x".repeat(1024);
+        for (int i = 0; i < 1100; i++) {
+            manager.createTask(new Task("Задача " + i, description));
+        }
+
+        String first = tasksJson();
+        String second = tasksJson();
+
+        assertTrue(first.length() > JsonCache.MAX_CACHED_RESPONSE);
+        assertEquals(first, second);
+        assertEquals(0, cache.getResponseHits());
+        assertEquals(1100, cache.getFragmentHits());
+    }
+}
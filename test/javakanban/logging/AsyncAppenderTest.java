@@ -0,0 +1,66 @@
+package javakanban.logging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncAppenderTest {
+
+    private static LogRecord record(String message) {
+        return new LogRecord(Level.INFO, "test", message, null);
+    }
+
+    @Test
+    @DisplayName("Записи доходят до получателя в порядке поступления, close() дописывает очередь")
+    void append_deliversRecordsInOrder() {
+        List<String> messages = new CopyOnWriteArrayList<>();
+        AsyncAppender appender = new AsyncAppender(record -> messages.add(record.getMessage()), 16);
+
+        for (int i = 0; i < 10; i++) {
+            appender.append(record("message " + i));
+        }
+        appender.close();
+
+        assertEquals(10, messages.size());
+        assertEquals("message 0", messages.get(0));
+        assertEquals("message 9", messages.get(9));
+        assertEquals(0, appender.getDropped());
+    }
+
+    @Test
+    @DisplayName("При переполнении очереди записи отбрасываются без ожидания, а потеря сообщается в журнал")
+    void append_dropsRecords_whenQueueIsFull() throws InterruptedException {
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<LogRecord> delivered = new CopyOnWriteArrayList<>();
+        AsyncAppender appender = new AsyncAppender(record -> {
+            writerBlocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.add(record);
+        }, 2);
+
+        appender.append(record("first"));
+        writerBlocked.await();
+        for (int i = 0; i < 10; i++) {
+            appender.append(record("message " + i));
+        }
+        assertEquals(8, appender.getDropped());
+
+        release.countDown();
+        appender.close();
+
+        assertEquals(4, delivered.size());
+        LogRecord report = delivered.get(3);
+        assertEquals(Level.WARN, report.getLevel());
+        assertTrue(report.getMessage().endsWith("8"));
+    }
+}
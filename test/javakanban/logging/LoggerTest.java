@@ -0,0 +1,63 @@
+package javakanban.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoggerTest {
+
+    private final List<LogRecord> records = new ArrayList<>();
+    private Level previousLevel;
+    private Appender previousAppender;
+
+    @BeforeEach
+    void setUp() {
+        previousLevel = Logger.getLevel();
+        previousAppender = Logger.setAppender(records::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Logger.setLevel(previousLevel);
+        Logger.setAppender(previousAppender);
+    }
+
+    @Test
+    @DisplayName("Записи ниже порога не создаются, а сообщение debug не собирается")
+    void log_skipsRecordsBelowThreshold() {
+        Logger.setLevel(Level.INFO);
+        Logger logger = Logger.getLogger(LoggerTest.class);
+
+        logger.debug(() -> {
+            throw new AssertionError("Сообщение не должно собираться");
+        });
+        logger.info("info");
+        logger.error("error", new IllegalStateException());
+
+        assertFalse(logger.isDebugEnabled());
+        assertEquals(2, records.size());
+        assertEquals("LoggerTest", records.get(0).getLogger());
+        assertEquals(Level.ERROR, records.get(1).getLevel());
+        assertNotNull(records.get(1).getError());
+    }
+
+    @Test
+    @DisplayName("Порог DEBUG включает отладочные записи, OFF выключает все")
+    void setLevel_changesThresholdForAllLoggers() {
+        Logger logger = Logger.getLogger(LoggerTest.class);
+
+        Logger.setLevel(Level.DEBUG);
+        logger.debug(() -> "debug");
+        Logger.setLevel(Level.OFF);
+        logger.error("error", null);
+
+        assertEquals(1, records.size());
+        assertEquals("debug", records.get(0).getMessage());
+    }
+}
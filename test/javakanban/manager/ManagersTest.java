@@ -24,4 +24,20 @@ public class ManagersTest {
 
         assertNotNull(historyManager, "HistoryManager должен быть проинициализирован");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("getConcurrent() возвращает проинициализированный потокобезопасный TaskManager")
+    void getConcurrent_returnsInitializedTaskManager() {
+        TaskManager taskManager = Managers.getConcurrent();
+
+        assertNotNull(taskManager, "TaskManager должен быть проинициализирован");
+    }
+
+    @Test
+    @DisplayName("getBoundedHistory() возвращает историю заданной ёмкости")
+    void getBoundedHistory_returnsInitializedHistoryManager() {
+        HistoryManager historyManager = Managers.getBoundedHistory(10);
+
+        assertNotNull(historyManager, "HistoryManager должен быть проинициализирован");
+    }
+}
@@ -0,0 +1,117 @@
+package javakanban.manager.history;
+
+import javakanban.models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncHistoryManagerTest {
+
+    private AsyncHistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = new AsyncHistoryManager(new InMemoryHistoryManager());
+    }
+
+    @AfterEach
+    void tearDown() {
+        historyManager.close();
+    }
+
+    private static Task task(int id) {
+        Task task = new Task("Task " + id, "Description");
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    @DisplayName("После flush() история содержит все просмотры в порядке публикации")
+    void flush_appliesEventsInOrder() {
+        historyManager.add(task(1));
+        historyManager.add(task(2));
+        historyManager.add(task(1));
+        historyManager.add(task(3));
+        historyManager.remove(2);
+        historyManager.flush();
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(1, history.get(0).getId());
+        assertEquals(3, history.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Просмотр фиксирует состояние задачи на момент публикации")
+    void add_capturesTaskStateAtViewTime() {
+        Task task = task(1);
+        historyManager.add(task);
+        task.setName("Modified");
+        historyManager.flush();
+
+        assertEquals("Task 1", historyManager.getHistory().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Просмотры из многих потоков не теряются")
+    void concurrentAdds_areAllApplied() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread * 1_000;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    historyManager.add(task(offset + i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        historyManager.flush();
+
+        assertEquals(8_000, historyManager.getHistory().size());
+    }
+
+    @Test
+    @DisplayName("После закрытия публиковать события нельзя")
+    void add_afterClose_throws() {
+        historyManager.close();
+
+        assertThrows(IllegalStateException.class, () -> historyManager.add(task(1)));
+    }
+
+    @Test
+    @DisplayName("После flush() поток видит свой просмотр, даже когда публикуют другие потоки")
+    void flush_showsOwnViewUnderConcurrentPublishers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread * 1_000;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    int id = offset + i;
+                    historyManager.add(task(id));
+                    historyManager.flush();
+                    assertTrue(historyManager.getHistory().stream().anyMatch(task -> task.getId() == id),
+                            "Просмотр " + id + " не виден после flush()");
+                    historyManager.remove(id);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+}
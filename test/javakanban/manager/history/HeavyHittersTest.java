@@ -0,0 +1,51 @@
+package javakanban.manager.history;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHittersTest {
+
+    @Test
+    @DisplayName("Самые частые id находятся среди лидеров в правильном порядке")
+    void top_findsHeavyHitters_inSkewedStream() {
+        HeavyHitters hitters = new HeavyHitters(10, 1024, 4);
+        Map<Integer, Integer> exact = new HashMap<>();
+        Random random = new Random(3);
+
+        for (int i = 0; i < 200_000; i++) {
+            // несколько горячих id на фоне длинного хвоста
+            int id = random.nextInt(10) < 3 ? random.nextInt(5) : 1_000 + random.nextInt(50_000);
+            hitters.record(id);
+            exact.merge(id, 1, Integer::sum);
+        }
+
+        List<HeavyHitters.Entry> top = hitters.top(5);
+        assertEquals(5, top.size());
+        for (HeavyHitters.Entry entry : top) {
+            assertTrue(entry.getId() < 5, "Лидер должен быть из горячих id: " + entry.getId());
+            assertTrue(entry.getCount() >= exact.get(entry.getId()), "Оценка не может быть меньше точной");
+        }
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).getCount() >= top.get(i).getCount());
+        }
+    }
+
+    @Test
+    @DisplayName("top(k) не возвращает больше записей, чем отслеживается")
+    void top_isLimitedByCapacity() {
+        HeavyHitters hitters = new HeavyHitters(3, 64, 2);
+        for (int id = 0; id < 10; id++) {
+            hitters.record(id);
+        }
+
+        assertEquals(3, hitters.top(10).size());
+        assertTrue(hitters.estimate(7) >= 1);
+    }
+}
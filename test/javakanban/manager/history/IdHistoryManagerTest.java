@@ -0,0 +1,82 @@
+package javakanban.manager.history;
+
+import javakanban.manager.task.InMemoryTaskManager;
+import javakanban.manager.task.TaskManager;
+import javakanban.models.Epic;
+import javakanban.models.Task;
+import javakanban.models.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdHistoryManagerTest {
+
+    private IdHistoryManager historyManager;
+    private TaskManager manager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = new IdHistoryManager();
+        manager = new InMemoryTaskManager(historyManager);
+    }
+
+    @Test
+    @DisplayName("История возвращает текущую версию задачи, а не копию на момент просмотра")
+    void getHistory_returnsCurrentVersion() {
+        Task task = manager.createTask(new Task("Task", "Description"));
+        manager.getTaskById(task.getId());
+
+        Task update = manager.getTaskById(task.getId());
+        update.setStatus(TaskStatus.DONE);
+        manager.updateTask(update);
+
+        List<Task> history = manager.getHistory();
+        assertEquals(1, history.size());
+        assertEquals(TaskStatus.DONE, history.get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("Порядок просмотров сохраняется для задач разных типов")
+    void getHistory_keepsViewOrderAcrossTypes() {
+        Task task = manager.createTask(new Task("Task", "Description"));
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        manager.getEpicById(epic.getId());
+        manager.getTaskById(task.getId());
+        manager.getEpicById(epic.getId());
+
+        List<Task> history = manager.getHistory();
+        assertEquals(task.getId(), history.get(0).getId());
+        assertEquals(epic.getId(), history.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Задачи, которых больше нет, пропускаются")
+    void getHistory_skipsMissingIds() {
+        Map<Integer, Task> store = new HashMap<>();
+        IdHistoryManager detached = new IdHistoryManager(10);
+        detached.attach(store::get);
+        Task task = new Task("Task", "Description");
+        task.setId(1);
+        store.put(1, task);
+        detached.add(task);
+        Task gone = new Task("Gone", "Description");
+        gone.setId(2);
+        detached.add(gone);
+
+        List<Task> history = detached.getHistory();
+        assertEquals(1, history.size());
+        assertEquals(1, history.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Без подключённого менеджера задач история недоступна")
+    void getHistory_throws_whenNotAttached() {
+        assertThrows(IllegalStateException.class, () -> new IdHistoryManager().getHistory());
+    }
+}
@@ -0,0 +1,124 @@
+package javakanban.manager.history;
+
+import javakanban.manager.task.InMemoryTaskManager;
+import javakanban.manager.task.TaskManager;
+import javakanban.models.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedHistoryManagerTest {
+
+    private static Task task(int id) {
+        Task task = new Task("Task " + id, "Description");
+        task.setId(id);
+        return task;
+    }
+
+    private static PartitionedHistoryManager attached(PartitionedHistoryManager history) {
+        history.attach(PartitionedHistoryManagerTest::task);
+        return history;
+    }
+
+    private static List<Integer> historyOf(HistoryManager history, String clientId) {
+        return HistoryContext.callAs(clientId, () -> history.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    @DisplayName("У каждого клиента своя история, без контекста используется общая")
+    void clientsHaveSeparateHistories() {
+        TaskManager manager = new InMemoryTaskManager(new PartitionedHistoryManager());
+        Task first = manager.createTask(new Task("First", "Description"));
+        Task second = manager.createTask(new Task("Second", "Description"));
+
+        HistoryContext.runAs("alice", () -> manager.getTaskById(first.getId()));
+        HistoryContext.runAs("bob", () -> manager.getTaskById(second.getId()));
+        manager.getTaskById(second.getId());
+
+        assertEquals(List.of(first.getId()), HistoryContext.callAs("alice",
+                () -> manager.getHistory().stream().map(Task::getId).toList()));
+        assertEquals(List.of(second.getId()), HistoryContext.callAs("bob",
+                () -> manager.getHistory().stream().map(Task::getId).toList()));
+        assertEquals(1, manager.getHistory().size());
+        assertTrue(HistoryContext.callAs("carol", manager::getHistory).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Раздел ограничен своей ёмкостью")
+    void partitionIsBounded() {
+        PartitionedHistoryManager history = attached(new PartitionedHistoryManager(2, 10, 100));
+        HistoryContext.runAs("alice", () -> {
+            history.add(task(1));
+            history.add(task(2));
+            history.add(task(3));
+        });
+
+        assertEquals(List.of(2, 3), historyOf(history, "alice"));
+        assertEquals(2, history.getTotalEntries());
+    }
+
+    @Test
+    @DisplayName("При превышении числа разделов удаляются давно неактивные клиенты")
+    void idlePartitionsAreEvicted() {
+        PartitionedHistoryManager history = attached(new PartitionedHistoryManager(5, 10, 1_000));
+        for (int client = 0; client < 11; client++) {
+            String clientId = "client-" + client;
+            HistoryContext.runAs(clientId, () -> history.add(task(1)));
+            if (client > 0) {
+                // первый клиент остаётся активным
+                HistoryContext.runAs("client-0", () -> history.add(task(2)));
+            }
+        }
+
+        assertTrue(history.getPartitionCount() <= 9);
+        assertEquals(List.of(1, 2), historyOf(history, "client-0"));
+        assertTrue(historyOf(history, "client-1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Общий лимит записей соблюдается по всем разделам")
+    void totalEntriesRespectGlobalBudget() {
+        PartitionedHistoryManager history = attached(new PartitionedHistoryManager(10, 1_000, 50));
+        for (int client = 0; client < 20; client++) {
+            HistoryContext.runAs("client-" + client, () -> {
+                for (int id = 1; id <= 10; id++) {
+                    history.add(task(id));
+                }
+            });
+        }
+
+        assertTrue(history.getTotalEntries() <= 50);
+        assertEquals(10, historyOf(history, "client-19").size());
+    }
+
+    @Test
+    @DisplayName("Удалённая задача убирается из истории всех клиентов")
+    void remove_clearsIdFromAllPartitions() {
+        PartitionedHistoryManager history = attached(new PartitionedHistoryManager());
+        HistoryContext.runAs("alice", () -> history.add(task(1)));
+        HistoryContext.runAs("bob", () -> history.add(task(1)));
+
+        history.remove(1);
+
+        assertEquals(0, history.getTotalEntries());
+        assertTrue(historyOf(history, "alice").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Асинхронная запись применяет просмотр к разделу клиента, который его сделал")
+    void asyncHistory_keepsClientOfEachView() {
+        PartitionedHistoryManager partitioned = new PartitionedHistoryManager();
+        AsyncHistoryManager history = new AsyncHistoryManager(partitioned);
+        history.attach(PartitionedHistoryManagerTest::task);
+        HistoryContext.runAs("alice", () -> history.add(task(1)));
+        HistoryContext.runAs("bob", () -> history.add(task(2)));
+        history.flush();
+
+        assertEquals(List.of(1), historyOf(history, "alice"));
+        assertEquals(List.of(2), historyOf(history, "bob"));
+        history.close();
+    }
+}
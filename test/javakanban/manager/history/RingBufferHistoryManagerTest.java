@@ -0,0 +1,113 @@
+package javakanban.manager.history;
+
+import javakanban.models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferHistoryManagerTest {
+
+    private RingBufferHistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = new RingBufferHistoryManager(3);
+    }
+
+    private static Task task(int id) {
+        Task task = new Task("Task " + id, "Description");
+        task.setId(id);
+        return task;
+    }
+
+    private List<Integer> historyIds() {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : historyManager.getHistory()) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("При заполнении вытесняется самый старый просмотр")
+    void add_evictsOldest_whenFull() {
+        for (int id = 1; id <= 5; id++) {
+            historyManager.add(task(id));
+        }
+
+        assertEquals(List.of(3, 4, 5), historyIds());
+    }
+
+    @Test
+    @DisplayName("Повторный просмотр переносит задачу в конец и спасает её от вытеснения")
+    void add_movesViewedTaskToEnd() {
+        historyManager.add(task(1));
+        historyManager.add(task(2));
+        historyManager.add(task(3));
+        historyManager.add(task(1));
+        historyManager.add(task(4));
+
+        assertEquals(List.of(3, 1, 4), historyIds());
+    }
+
+    @Test
+    @DisplayName("Освобождённая удалением ячейка используется повторно")
+    void remove_freesSlotForReuse() {
+        historyManager.add(task(1));
+        historyManager.add(task(2));
+        historyManager.add(task(3));
+        historyManager.remove(2);
+        historyManager.add(task(4));
+
+        assertEquals(List.of(1, 3, 4), historyIds());
+        historyManager.remove(42);
+        assertEquals(3, historyManager.getHistory().size());
+    }
+
+    @Test
+    @DisplayName("История хранит копию задачи на момент просмотра")
+    void add_storesCopy() {
+        Task task = task(1);
+        historyManager.add(task);
+        task.setName("Modified");
+
+        assertEquals("Task 1", historyManager.getHistory().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Порядок совпадает с неограниченной историей, обрезанной до ёмкости")
+    void randomOperations_matchUnboundedHistoryTail() {
+        int capacity = 50;
+        RingBufferHistoryManager bounded = new RingBufferHistoryManager(capacity);
+        InMemoryHistoryManager unbounded = new InMemoryHistoryManager();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                bounded.remove(id);
+                unbounded.remove(id);
+            } else {
+                bounded.add(task(id));
+                unbounded.add(task(id));
+            }
+            // вытесненное из ограниченной истории убираем и из эталона
+            List<Task> expected = unbounded.getHistory();
+            for (int j = 0; j < expected.size() - capacity; j++) {
+                unbounded.remove(expected.get(j).getId());
+            }
+        }
+
+        List<Integer> expectedIds = new ArrayList<>();
+        unbounded.getHistory().forEach(task -> expectedIds.add(task.getId()));
+        List<Integer> actualIds = new ArrayList<>();
+        bounded.getHistory().forEach(task -> actualIds.add(task.getId()));
+        assertEquals(expectedIds, actualIds);
+    }
+}
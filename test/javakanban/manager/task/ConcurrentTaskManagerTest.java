@@ -0,0 +1,176 @@
+package javakanban.manager.task;
+
+import javakanban.manager.history.AsyncHistoryManager;
+import javakanban.manager.history.InMemoryHistoryManager;
+import javakanban.models.Epic;
+import javakanban.models.Subtask;
+import javakanban.models.Task;
+import javakanban.models.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    private static final int THREADS = 8;
+
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager(new InMemoryHistoryManager());
+    }
+
+    @BeforeEach
+    void initManager() {
+        manager = createTaskManager();
+    }
+
+    private void runInParallel(int count, Callable<Void> action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                futures.add(executor.submit(action));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Параллельно созданные задачи и эпики получают уникальные id")
+    void parallelCreate_assignsUniqueIds() throws Exception {
+        runInParallel(1000, () -> {
+            manager.createTask(new Task("Task", "Description"));
+            manager.createEpic(new Epic("Epic", "Description"));
+            return null;
+        });
+
+        Set<Integer> ids = new HashSet<>();
+        manager.getAllTasks().forEach(task -> ids.add(task.getId()));
+        manager.getAllEpics().forEach(epic -> ids.add(epic.getId()));
+        assertEquals(2000, ids.size());
+    }
+
+    @Test
+    @DisplayName("Из параллельных задач на одно и то же время принимается ровно одна")
+    void parallelCreate_admitsOnlyOneOverlappingTask() throws Exception {
+        AtomicInteger rejected = new AtomicInteger();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+        runInParallel(200, () -> {
+            try {
+                manager.createTask(new Task("Task", "Description", Duration.ofMinutes(30), start));
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+
+        assertEquals(1, manager.getPrioritizedTasks().size());
+        assertEquals(199, rejected.get());
+    }
+
+    @Test
+    @DisplayName("Статус эпика согласован после параллельного обновления подзадач")
+    void parallelSubtaskUpdates_keepEpicStatusConsistent() throws Exception {
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        List<Subtask> created = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            created.add(manager.createSubtask(new Subtask("Sub " + i, "Description", epic.getId())));
+        }
+        AtomicInteger next = new AtomicInteger();
+
+        runInParallel(created.size(), () -> {
+            Subtask update = created.get(next.getAndIncrement()).copy();
+            update.setStatus(TaskStatus.DONE);
+            manager.updateSubtask(update);
+            manager.getEpicById(epic.getId());
+            return null;
+        });
+
+        assertEquals(TaskStatus.DONE, manager.getEpicById(epic.getId()).getStatus());
+        assertFalse(manager.getHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Чтение по id возвращает копию, а не хранимый объект")
+    void getTaskById_returnsCopy() {
+        Task task = manager.createTask(new Task("Task", "Description"));
+
+        Task fromManager = manager.getTaskById(task.getId());
+        fromManager.setName("Changed");
+
+        assertEquals("Task", manager.getTaskById(task.getId()).getName());
+    }
+
+    @Test
+    @DisplayName("С асинхронной историей параллельные просмотры видны после flush()")
+    void asyncHistory_recordsParallelViews() throws Exception {
+        AsyncHistoryManager history = new AsyncHistoryManager(new InMemoryHistoryManager());
+        manager = new ConcurrentTaskManager(history);
+        List<Task> created = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            created.add(manager.createTask(new Task("Task " + i, "Description")));
+        }
+        AtomicInteger next = new AtomicInteger();
+
+        runInParallel(created.size(), () -> {
+            manager.getTaskById(created.get(next.getAndIncrement()).getId());
+            return null;
+        });
+        history.flush();
+
+        assertEquals(50, manager.getHistory().size());
+        history.close();
+    }
+
+    @Test
+    @DisplayName("Удаление во время просмотра не оставляет удалённую задачу в истории")
+    void deleteDuringView_doesNotLeaveTaskInHistory() throws Exception {
+        CountDownLatch viewStarted = new CountDownLatch(1);
+        manager = new ConcurrentTaskManager(new InMemoryHistoryManager()) {
+            @Override
+            protected void recordView(Task task) {
+                viewStarted.countDown();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.recordView(task);
+            }
+        };
+        Task task = manager.createTask(new Task("Task", "Description"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Task> view = executor.submit(() -> manager.getTaskById(task.getId()));
+            viewStarted.await();
+            manager.deleteTaskById(task.getId());
+            view.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertTrue(manager.getHistory().isEmpty());
+    }
+}
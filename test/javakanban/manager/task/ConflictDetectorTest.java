@@ -0,0 +1,99 @@
+package javakanban.manager.task;
+
+import javakanban.models.Conflict;
+import javakanban.models.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictDetectorTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private Task task(int id, int startMinute, int durationMinutes) {
+        Task task = new Task("Task " + id, "Description",
+                Duration.ofMinutes(durationMinutes), BASE.plusMinutes(startMinute));
+        task.setId(id);
+        return task;
+    }
+
+    private static List<Integer> ids(Conflict conflict) {
+        return conflict.getTasks().stream().map(Task::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Пересекающиеся задачи собираются в группы, соприкасающиеся - нет")
+    void findConflicts_groupsTransitivelyOverlappingTasks() {
+        List<Task> sorted = List.of(
+                task(1, 0, 30),
+                task(2, 30, 60),
+                task(3, 40, 10),
+                task(4, 80, 30),
+                task(5, 120, 10),
+                task(6, 200, 30),
+                task(7, 210, 5),
+                new Task("Без времени", "Description"));
+
+        List<Conflict> conflicts = ConflictDetector.findConflicts(sorted);
+
+        assertEquals(2, conflicts.size());
+        assertEquals(List.of(2, 3, 4), ids(conflicts.get(0)));
+        assertEquals(BASE.plusMinutes(30), conflicts.get(0).getStartTime());
+        assertEquals(BASE.plusMinutes(110), conflicts.get(0).getEndTime());
+        assertEquals(List.of(6, 7), ids(conflicts.get(1)));
+    }
+
+    @Test
+    @DisplayName("Задача нулевой длительности пересекается только с задачей, которая идёт в момент её начала")
+    void findConflicts_handlesZeroDurationTasks() {
+        List<Task> sorted = List.of(
+                task(1, 0, 60),
+                task(2, 60, 0),
+                task(3, 60, 30),
+                task(4, 70, 0),
+                task(5, 90, 0));
+
+        List<Conflict> conflicts = ConflictDetector.findConflicts(sorted);
+
+        assertEquals(1, conflicts.size());
+        assertEquals(List.of(3, 4), ids(conflicts.get(0)));
+    }
+
+    @Test
+    @DisplayName("Группа отдаётся сразу после того, как закончилась, не дожидаясь конца списка")
+    void forEachConflict_emitsGroupBeforeReadingRestOfTasks() {
+        List<Task> sorted = List.of(
+                task(1, 0, 30),
+                task(2, 10, 30),
+                task(3, 100, 30),
+                task(4, 110, 30));
+        List<Integer> read = new ArrayList<>();
+        List<Integer> readWhenEmitted = new ArrayList<>();
+        Iterable<Task> tracked = () -> new Iterator<>() {
+            private final Iterator<Task> delegate = sorted.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Task next() {
+                Task task = delegate.next();
+                read.add(task.getId());
+                return task;
+            }
+        };
+
+        ConflictDetector.forEachConflict(tracked, conflict -> readWhenEmitted.add(read.size()));
+
+        assertEquals(List.of(3, 4), readWhenEmitted);
+    }
+}
@@ -2,6 +2,7 @@ package javakanban.manager.task;
 
 import javakanban.exceptions.ManagerSaveException;
 import javakanban.models.*;
+import javakanban.utils.CsvConverter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,8 +10,17 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -140,4 +150,242 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
 
         tempFile.setWritable(true);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("В режиме журнала изменения дописываются в журнал, а не перезаписывают CSV")
+    void journalMode_appendsRecordPerMutation() throws IOException {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, StorageSettings.journal());
+        Task task = manager.createTask(new Task("Task", "Description"));
+        task.setStatus(TaskStatus.DONE);
+        manager.updateTask(task);
+        manager.deleteTaskById(task.getId());
+
+        File journalFile = new File(file.getPath() + ".log");
+        List<String> records = Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8);
+
+        assertEquals(3, records.size());
+        assertTrue(records.get(0).startsWith("PUT2,"));
+        assertTrue(records.get(2).startsWith("DELETE,TASK,"));
+        assertEquals(0, file.length(), "Снимок не должен переписываться до сжатия журнала");
+    }
+
+    @Test
+    @DisplayName("При загрузке журнал применяется поверх снимка и сжимается в него")
+    void journalMode_replaysJournalOnLoad() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, StorageSettings.journal());
+        Task kept = manager.createTask(new Task("Kept", "Description"));
+        Task removed = manager.createTask(new Task("Removed", "Description"));
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        Subtask subtask = manager.createSubtask(new Subtask("Sub", "Description", epic.getId()));
+        subtask.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask);
+        manager.deleteTaskById(removed.getId());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageSettings.journal());
+
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals(kept.getId(), loaded.getAllTasks().get(0).getId());
+        assertEquals(TaskStatus.DONE, loaded.getSubtaskById(subtask.getId()).getStatus());
+        assertEquals(TaskStatus.DONE, loaded.getEpicById(epic.getId()).getStatus());
+        assertEquals(0, new File(file.getPath() + ".log").length(), "Журнал должен быть сжат в снимок");
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(1, reloaded.getAllSubtasks().size());
+    }
+
+    @Test
+    @DisplayName("Журнал сжимается в снимок по достижении порога")
+    void journalMode_compactsAfterThreshold() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file,
+                StorageSettings.journal().withCompactionThreshold(2));
+        manager.createTask(new Task("Task 1", "Description"));
+        manager.createTask(new Task("Task 2", "Description"));
+
+        assertEquals(0, new File(file.getPath() + ".log").length());
+        assertEquals(2, FileBackedTaskManager.loadFromFile(file).getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Недописанная последняя запись журнала пропускается при загрузке")
+    void journalMode_skipsTornLastRecord() throws IOException {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, StorageSettings.journal());
+        manager.createTask(new Task("Task", "Description"));
+        Files.writeString(new File(file.getPath() + ".log").toPath(), "PUT,2,TA",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageSettings.journal());
+
+        assertEquals(1, loaded.getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Удаление эпика в журнале удаляет и его подзадачи")
+    void journalMode_deleteEpicRemovesSubtasksOnReplay() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, StorageSettings.journal());
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        manager.createSubtask(new Subtask("Sub", "Description", epic.getId()));
+        manager.deleteEpicById(epic.getId());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageSettings.journal());
+
+        assertTrue(loaded.getAllEpics().isEmpty());
+        assertTrue(loaded.getAllSubtasks().isEmpty());
+    }
+
+    @Test
+    @DisplayName("В режиме SYNC каждая запись журнала сбрасывается на диск отдельно")
+    void syncDurability_syncsEveryRecord() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file,
+                StorageSettings.journal().withDurability(Durability.SYNC));
+        manager.createTask(new Task("Task 1", "Description"));
+        manager.createTask(new Task("Task 2", "Description"));
+        manager.createTask(new Task("Task 3", "Description"));
+
+        assertEquals(3, manager.journal().syncCount());
+        manager.close();
+    }
+
+    @Test
+    @DisplayName("Групповая фиксация объединяет параллельные изменения в общие пакеты")
+    void groupCommit_batchesConcurrentMutations() throws Exception {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file,
+                StorageSettings.journal().withCompactionThreshold(100_000).withGroupCommit(5_000, 64));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 25; i++) {
+                    manager.createTask(new Task("Task", "Description"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Вызов вернулся только после fsync своего пакета - журнал уже на диске целиком
+        List<String> records = Files.readAllLines(new File(file.getPath() + ".log").toPath(), StandardCharsets.UTF_8);
+        assertEquals(200, records.size());
+        assertTrue(manager.journal().syncCount() < 200, "Записи должны сбрасываться пакетами");
+        manager.close();
+
+        assertEquals(200, FileBackedTaskManager.loadFromFile(file, StorageSettings.journal()).getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("В асинхронном режиме закрытие менеджера дописывает накопленные записи")
+    void asyncDurability_closeFlushesPendingRecords() {
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file,
+                StorageSettings.journal().withDurability(Durability.ASYNC));
+        for (int i = 0; i < 10; i++) {
+            manager.createTask(new Task("Task " + i, "Description"));
+        }
+        manager.close();
+
+        assertEquals(10, FileBackedTaskManager.loadFromFile(file, StorageSettings.journal()).getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("После загрузки восстанавливаются список по приоритету, проверка пересечений и время эпиков")
+    void loadFromFile_rebuildsPrioritizedIndexAndEpicAggregates() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 9, 0);
+        Task late = manager.createTask(new Task("Late", "Description", Duration.ofMinutes(30), start.plusHours(5)));
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        Subtask early = manager.createSubtask(new Subtask("Early", "Description", epic.getId(),
+                Duration.ofMinutes(60), start));
+        Subtask done = manager.createSubtask(new Subtask("Done", "Description", epic.getId(),
+                Duration.ofMinutes(30), start.plusHours(2)));
+        done.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(done);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+
+        List<Task> prioritized = loaded.getPrioritizedTasks();
+        assertEquals(List.of(early.getId(), done.getId(), late.getId()),
+                prioritized.stream().map(Task::getId).toList());
+        Epic loadedEpic = loaded.getEpicById(epic.getId());
+        assertEquals(TaskStatus.IN_PROGRESS, loadedEpic.getStatus());
+        assertEquals(start, loadedEpic.getStartTime());
+        assertEquals(start.plusMinutes(150), loadedEpic.getEndTime());
+        assertEquals(List.of(early.getId(), done.getId()), loadedEpic.getSubtaskIds());
+        assertEquals(List.of(early.getId(), done.getId()),
+                loaded.getSubtasks(0, 10).getItems().stream().map(Task::getId).toList());
+        assertThrows(IllegalArgumentException.class, () -> loaded.createTask(
+                new Task("Overlap", "Description", Duration.ofMinutes(30), start.plusMinutes(15))));
+    }
+
+    @Test
+    @DisplayName("Двоичный снимок сохраняется и загружается, CSV остаётся доступен для экспорта")
+    void binarySnapshot_savesLoadsAndExportsCsv() throws IOException {
+        StorageSettings binary = StorageSettings.defaults().withSnapshotFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager binaryManager = FileBackedTaskManager.loadFromFile(file, binary);
+        Task task = binaryManager.createTask(new Task("Имя, с запятой", "Описание"));
+        Epic epic = binaryManager.createEpic(new Epic("Epic", "Description"));
+        binaryManager.createSubtask(new Subtask("Sub", "Description", epic.getId()));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals("Имя, с запятой", loaded.getTaskById(task.getId()).getName());
+        assertEquals(1, loaded.getSubtasksByEpic(epic.getId()).size());
+
+        File export = tempDir.resolve("export.csv").toFile();
+        loaded.exportCsv(export);
+        List<String> lines = Files.readAllLines(export.toPath(), StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+        assertEquals(CsvConverter.getHeader(), lines.get(0));
+    }
+
+    @Test
+    @DisplayName("findConflicts() находит пересечения в файле, загруженном без проверки")
+    void findConflicts_reportsOverlapsLoadedFromFile() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Task first = new Task("First", "Description", Duration.ofMinutes(60), start);
+        first.setId(1);
+        Task second = new Task("Second", "Description", Duration.ofMinutes(60), start.plusMinutes(30));
+        second.setId(2);
+        Task separate = new Task("Separate", "Description", Duration.ofMinutes(30), start.plusHours(3));
+        separate.setId(3);
+        Files.write(file.toPath(), List.of(CsvConverter.getHeader(), CsvConverter.toString(first),
+                CsvConverter.toString(second), CsvConverter.toString(separate)), StandardCharsets.UTF_8);
+
+        List<Conflict> conflicts = FileBackedTaskManager.loadFromFile(file).findConflicts();
+
+        assertEquals(1, conflicts.size());
+        assertEquals(List.of("First", "Second"), conflicts.get(0).getTasks().stream()
+                .map(Task::getName).toList());
+        assertEquals(start.plusMinutes(90), conflicts.get(0).getEndTime());
+    }
+
+    @Test
+    @DisplayName("Запятые и переводы строк в названии и описании переживают применение журнала")
+    void journalMode_replaysTextWithCommasAndNewlines() {
+        StorageSettings settings = StorageSettings.journal().withSnapshotFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, settings);
+        Task task = manager.createTask(new Task("Купить молоко, хлеб", "Строка 1\nстрока 2, \\c"));
+        Epic epic = manager.createEpic(new Epic("Эпик, первый", "Описание"));
+        manager.createSubtask(new Subtask("Подзадача, с запятой", "Описание", epic.getId()));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, settings);
+
+        Task replayed = loaded.getTaskById(task.getId());
+        assertEquals("Купить молоко, хлеб", replayed.getName());
+        assertEquals("Строка 1\nстрока 2, \\c", replayed.getDescription());
+        assertEquals("Эпик, первый", loaded.getEpicById(epic.getId()).getName());
+        assertEquals("Подзадача, с запятой", loaded.getAllSubtasks().get(0).getName());
+        assertEquals(epic.getId(), loaded.getAllSubtasks().get(0).getEpicId());
+    }
+
+    @Test
+    @DisplayName("Записи PUT прежней версии журнала читаются без снятия экранирования")
+    void journalMode_replaysLegacyRecordsRaw() throws IOException {
+        Task task = new Task("C:\\temp\\new", "Описание \\c");
+        task.setId(1);
+        Files.writeString(new File(file.getPath() + ".log").toPath(),
+                "PUT," + CsvConverter.toString(task) + "\n", StandardCharsets.UTF_8);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, StorageSettings.journal());
+
+        assertEquals("C:\\temp\\new", loaded.getTaskById(1).getName());
+        assertEquals("Описание \\c", loaded.getTaskById(1).getDescription());
+    }
+}
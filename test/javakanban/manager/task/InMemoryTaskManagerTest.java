@@ -8,7 +8,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
@@ -69,4 +74,30 @@ public class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager
         assertFalse(epic.getSubtaskIds().contains(subtask.getId()),
                 "ID подзадачи должен быть удалён из Epic");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Упорядоченное представление списка поддерживает поиск и диапазоны SortedSet")
+    void sortedListView_supportsSortedSetRanges() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        List<Task> sorted = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            Task task = new Task("Task " + i, "Description", Duration.ofMinutes(30), start.plusHours(i));
+            task.setId(i);
+            sorted.add(task);
+        }
+        Task withoutTime = new Task("Без времени", "Description");
+        withoutTime.setId(5);
+        sorted.add(withoutTime);
+
+        InMemoryTaskManager.SortedListView view = new InMemoryTaskManager.SortedListView(sorted);
+
+        assertEquals(sorted.get(0), view.first());
+        assertEquals(withoutTime, view.last());
+        assertTrue(view.contains(sorted.get(2)));
+        assertEquals(List.of(sorted.get(1), sorted.get(2)), new ArrayList<>(view.subSet(sorted.get(1), sorted.get(3))));
+        assertEquals(List.of(sorted.get(0)), new ArrayList<>(view.headSet(sorted.get(1))));
+        assertEquals(List.of(sorted.get(3), withoutTime), new ArrayList<>(view.tailSet(sorted.get(3))));
+        assertThrows(NoSuchElementException.class, () -> view.headSet(sorted.get(0)).first());
+        assertEquals(sorted, new ArrayList<>(new TreeSet<>(view)));
+    }
+}
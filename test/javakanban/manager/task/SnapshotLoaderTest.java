@@ -0,0 +1,85 @@
+package javakanban.manager.task;
+
+import javakanban.models.*;
+import javakanban.utils.CsvConverter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File writeSnapshot(int count) throws IOException {
+        File file = tempDir.resolve("snapshot.csv").toFile();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(CsvConverter.getHeader() + "\n");
+            for (int id = 1; id <= count; id++) {
+                Task task = new Task("Задача " + id, "Описание", Duration.ofMinutes(id),
+                        LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(id));
+                task.setId(id);
+                writer.write(CsvConverter.toString(task) + "\n");
+            }
+        }
+        return file;
+    }
+
+    @Test
+    @DisplayName("Параллельный разбор по частям даёт те же задачи в том же порядке, что и построчный")
+    void parallelLoad_matchesSequentialLoad() throws IOException {
+        File file = writeSnapshot(5_000);
+        List<Task> sequential = new ArrayList<>();
+        List<Task> parallel = new ArrayList<>();
+
+        LoadStats sequentialStats = SnapshotLoader.load(file, sequential::add);
+        LoadStats parallelStats = SnapshotLoader.load(file, parallel::add, 0, 4);
+
+        assertEquals(1, sequentialStats.getChunks());
+        assertTrue(parallelStats.getChunks() > 1, "Файл должен разбираться по частям");
+        assertEquals(5_000, parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getId(), parallel.get(i).getId());
+            assertEquals(sequential.get(i).getName(), parallel.get(i).getName());
+            assertEquals(sequential.get(i).getStartTime(), parallel.get(i).getStartTime());
+        }
+    }
+
+    @Test
+    @DisplayName("Статистика загрузки содержит объём файла и число записей")
+    void load_reportsStats() throws IOException {
+        File file = writeSnapshot(100);
+
+        LoadStats stats = SnapshotLoader.load(file, task -> { });
+
+        assertEquals(100, stats.getRecords());
+        assertEquals(file.length(), stats.getBytes());
+        assertTrue(stats.getRecordsPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Строка подзадачи разбирается без промежуточного массива полей, включая пустые поля")
+    void fromString_parsesFieldsInPlace() {
+        Subtask subtask = (Subtask) CsvConverter.fromString("7,SUBTASK,Имя,DONE,Описание,,,3");
+
+        assertEquals(7, subtask.getId());
+        assertEquals("Имя", subtask.getName());
+        assertEquals(TaskStatus.DONE, subtask.getStatus());
+        assertEquals(Duration.ZERO, subtask.getDuration());
+        assertNull(subtask.getStartTime());
+        assertEquals(3, subtask.getEpicId());
+    }
+}
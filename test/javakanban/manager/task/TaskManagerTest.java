@@ -2,14 +2,17 @@ package javakanban.manager.task;
 
 import javakanban.exceptions.NotFoundException;
 import javakanban.models.Epic;
+import javakanban.models.Page;
 import javakanban.models.Subtask;
 import javakanban.models.Task;
 import javakanban.models.TaskStatus;
+import javakanban.models.ViewCount;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +39,16 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(createdEpic, manager.getEpicById(createdEpic.getId()));
     }
 
+    @Test
+    @DisplayName("containsEpic() находит эпик по id и не записывает просмотр в историю")
+    void containsEpic_doesNotRecordView() {
+        Epic epic = manager.createEpic(new Epic("Epic", "Epic Description"));
+
+        assertTrue(manager.containsEpic(epic.getId()));
+        assertFalse(manager.containsEpic(epic.getId() + 1));
+        assertTrue(manager.getHistory().isEmpty());
+    }
+
     @Test
     @DisplayName("createSubtask() должен добавлять подзадачи, getSubtaskById() находить их по id")
     void createSubtask_returnSubtask_whenValidId() {
@@ -228,4 +241,229 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         task2.setStartTime(LocalDateTime.of(2024, 1, 1, 10, 30));
         assertThrows(IllegalArgumentException.class, () -> manager.updateTask(task2));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Задача может начинаться ровно в момент окончания другой")
+    void tasks_shouldNotOverlap_whenIntervalsTouch() {
+        manager.createTask(new Task("Task 1", "Description",
+                Duration.ofMinutes(60),
+                LocalDateTime.of(2024, 1, 1, 10, 0)));
+
+        assertDoesNotThrow(() -> manager.createTask(new Task("Task 2", "Description",
+                Duration.ofMinutes(60),
+                LocalDateTime.of(2024, 1, 1, 11, 0))));
+    }
+
+    @Test
+    @DisplayName("После удаления эпика время его подзадач снова свободно")
+    void deleteEpic_releasesSubtaskTime() {
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        manager.createSubtask(new Subtask("Sub", "Description", epic.getId(),
+                Duration.ofMinutes(60), LocalDateTime.of(2024, 1, 1, 10, 0)));
+
+        manager.deleteEpicById(epic.getId());
+
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+        assertDoesNotThrow(() -> manager.createTask(new Task("Task", "Description",
+                Duration.ofMinutes(60), LocalDateTime.of(2024, 1, 1, 10, 0))));
+    }
+
+    @Test
+    @DisplayName("Перенос задачи освобождает её прежнее время")
+    void updateTask_releasesPreviousTime() {
+        Task task = manager.createTask(new Task("Task 1", "Description",
+                Duration.ofMinutes(60),
+                LocalDateTime.of(2024, 1, 1, 10, 0)));
+
+        task.setStartTime(LocalDateTime.of(2024, 1, 1, 14, 0));
+        manager.updateTask(task);
+
+        assertDoesNotThrow(() -> manager.createTask(new Task("Task 2", "Description",
+                Duration.ofMinutes(60), LocalDateTime.of(2024, 1, 1, 10, 0))));
+        assertEquals(2, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    @DisplayName("getTopViewed() возвращает самые просматриваемые задачи по убыванию просмотров")
+    void getTopViewed_returnsMostViewedTasks() {
+        Task rare = manager.createTask(new Task("Rare", "Description"));
+        Task hot = manager.createTask(new Task("Hot", "Description"));
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        manager.getTaskById(rare.getId());
+        for (int i = 0; i < 5; i++) {
+            manager.getTaskById(hot.getId());
+        }
+        manager.getEpicById(epic.getId());
+        manager.getEpicById(epic.getId());
+
+        List<ViewCount> top = manager.getTopViewed(2);
+
+        assertEquals(2, top.size());
+        assertEquals(hot.getId(), top.get(0).getTask().getId());
+        assertEquals(5, top.get(0).getViews());
+        assertEquals(epic.getId(), top.get(1).getTask().getId());
+    }
+
+    @Test
+    @DisplayName("getVersion() растёт только у наборов данных, затронутых изменением")
+    void getVersion_changesOnlyForAffectedCollections() {
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        long tasksVersion = manager.getVersion(BoardCollection.TASKS);
+        long epicsVersion = manager.getVersion(BoardCollection.EPICS);
+        long historyVersion = manager.getVersion(BoardCollection.HISTORY);
+
+        Task task = manager.createTask(new Task("Task", "Description"));
+
+        assertTrue(manager.getVersion(BoardCollection.TASKS) > tasksVersion);
+        assertEquals(epicsVersion, manager.getVersion(BoardCollection.EPICS));
+        assertEquals(historyVersion, manager.getVersion(BoardCollection.HISTORY));
+
+        long subtasksVersion = manager.getVersion(BoardCollection.SUBTASKS);
+        manager.getTaskById(task.getId());
+        manager.getAllEpics();
+
+        assertTrue(manager.getVersion(BoardCollection.HISTORY) > historyVersion);
+        assertEquals(subtasksVersion, manager.getVersion(BoardCollection.SUBTASKS));
+
+        epicsVersion = manager.getVersion(BoardCollection.EPICS);
+        manager.createSubtask(new Subtask("Subtask", "Description", epic.getId()));
+
+        assertTrue(manager.getVersion(BoardCollection.SUBTASKS) > subtasksVersion);
+        assertTrue(manager.getVersion(BoardCollection.EPICS) > epicsVersion);
+    }
+
+    @Test
+    @DisplayName("getTasks() отдаёт задачи страницами по возрастанию id")
+    void getTasks_pagesThroughAllTasksInIdOrder() {
+        for (int i = 0; i < 5; i++) {
+            manager.createTask(new Task("Task " + i, "Description"));
+        }
+        manager.createEpic(new Epic("Epic", "Description"));
+
+        Page<Task> first = manager.getTasks(0, 2);
+        assertEquals(List.of("Task 0", "Task 1"), first.getItems().stream().map(Task::getName).toList());
+        assertTrue(first.hasNext());
+
+        // Удаление задачи курсора не сбивает обход
+        int cursor = Integer.parseInt(first.getNextCursor());
+        manager.deleteTaskById(cursor);
+        Page<Task> second = manager.getTasks(cursor, 2);
+        Page<Task> last = manager.getTasks(Integer.parseInt(second.getNextCursor()), 2);
+
+        assertEquals(List.of("Task 2", "Task 3"), second.getItems().stream().map(Task::getName).toList());
+        assertEquals(List.of("Task 4"), last.getItems().stream().map(Task::getName).toList());
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    @DisplayName("getPrioritizedTasks(cursor, limit) продолжает список по приоритету с места курсора")
+    void getPrioritizedTasks_pagesInPriorityOrder() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        manager.createTask(new Task("Late", "Description", Duration.ofMinutes(30), start.plusHours(3)));
+        manager.createTask(new Task("No time", "Description"));
+        manager.createTask(new Task("Early", "Description", Duration.ofMinutes(30), start));
+        manager.createTask(new Task("Middle", "Description", Duration.ofMinutes(30), start.plusHours(1)));
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Task> page = manager.getPrioritizedTasks(cursor, 3);
+            page.getItems().forEach(task -> names.add(task.getName()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("Early", "Middle", "Late", "No time"), names);
+        assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasks("abc", 3));
+        assertThrows(IllegalArgumentException.class, () -> manager.getTasks(0, 0));
+    }
+
+    @Test
+    @DisplayName("Запросы по времени возвращают задачи интервала и ближайшие задачи по порядку")
+    void getTasksBetween_andStartingAfter_returnTasksInStartOrder() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        manager.createTask(new Task("Late", "Description", Duration.ofMinutes(30), start.plusHours(3)));
+        manager.createTask(new Task("No time", "Description"));
+        manager.createTask(new Task("Early", "Description", Duration.ofMinutes(90), start));
+        manager.createTask(new Task("Middle", "Description", Duration.ofMinutes(30), start.plusHours(2)));
+
+        assertEquals(List.of("Early", "Middle"), manager.getTasksBetween(start.plusHours(1), start.plusHours(3))
+                .stream().map(Task::getName).toList());
+        assertEquals(List.of("Middle", "Late"), manager.getTasksStartingAfter(start.plusHours(2), 10)
+                .stream().map(Task::getName).toList());
+        assertEquals(List.of("Early"), manager.getTasksStartingAfter(start, 1)
+                .stream().map(Task::getName).toList());
+        assertThrows(IllegalArgumentException.class, () -> manager.getTasksBetween(start, start.minusHours(1)));
+    }
+
+    @Test
+    @DisplayName("autoSchedule() расставляет задачи без времени по свободным промежуткам")
+    void autoSchedule_placesTasksIntoFreeGaps() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        manager.createTask(new Task("Busy 1", "Description", Duration.ofMinutes(60), start));
+        manager.createTask(new Task("Busy 2", "Description", Duration.ofMinutes(60), start.plusMinutes(90)));
+        Task shortTask = manager.createTask(new Task("Short", "Description", Duration.ofMinutes(30), null));
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        Subtask subtask = manager.createSubtask(new Subtask("Long", "Description", epic.getId(),
+                Duration.ofMinutes(45), null));
+
+        assertEquals(start.plusMinutes(60), manager.findFreeSlot(Duration.ofMinutes(30), start));
+        assertEquals(start.plusMinutes(150), manager.findFreeSlot(Duration.ofMinutes(31), start));
+
+        List<Task> scheduled = manager.autoSchedule(List.of(shortTask.getId(), subtask.getId()), start);
+
+        assertEquals(start.plusMinutes(60), scheduled.get(0).getStartTime());
+        assertEquals(start.plusMinutes(150), scheduled.get(1).getStartTime());
+        assertEquals(start.plusMinutes(150), manager.getEpicById(epic.getId()).getStartTime());
+        assertEquals(List.of("Busy 1", "Short", "Busy 2", "Long"), manager.getPrioritizedTasks().stream()
+                .map(Task::getName).toList());
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.autoSchedule(List.of(shortTask.getId()), start));
+    }
+
+    @Test
+    @DisplayName("Слот, который не помещается до LocalDateTime.MAX, - ошибка запроса, а расписание не меняется")
+    void findFreeSlot_rejectsDurationBeyondCalendarEnd() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Duration huge = Duration.between(start, LocalDateTime.MAX).plusMinutes(1);
+        Task first = manager.createTask(new Task("First", "Description", Duration.ofDays(365L * 900_000_000), null));
+        Task second = manager.createTask(new Task("Second", "Description", Duration.ofDays(365L * 900_000_000), null));
+
+        assertThrows(IllegalArgumentException.class, () -> manager.findFreeSlot(huge, start));
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.autoSchedule(List.of(first.getId(), second.getId()), start));
+        assertNull(manager.getTaskById(first.getId()).getStartTime());
+        assertNull(manager.getTaskById(second.getId()).getStartTime());
+    }
+
+    @Test
+    @DisplayName("getPrioritizedTasks() отдаёт один неизменяемый снимок, пока расписание не изменится")
+    void getPrioritizedTasks_sharesSnapshotUntilScheduleChanges() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Task task = manager.createTask(new Task("First", "Description", Duration.ofMinutes(30), start));
+
+        List<Task> snapshot = manager.getPrioritizedTasks();
+        assertSame(snapshot, manager.getPrioritizedTasks());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(task));
+
+        manager.getTaskById(task.getId());
+        assertSame(snapshot, manager.getPrioritizedTasks());
+
+        manager.createTask(new Task("Second", "Description", Duration.ofMinutes(30), start.minusHours(1)));
+        List<Task> updated = manager.getPrioritizedTasks();
+
+        assertNotSame(snapshot, updated);
+        assertEquals(List.of("First"), snapshot.stream().map(Task::getName).toList());
+        assertEquals(List.of("Second", "First"), updated.stream().map(Task::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Изменение задачи из снимка приоритета не видно другим читателям")
+    void getPrioritizedTasks_elementsCannotChangeSharedSnapshot() {
+        manager.createTask(new Task("Task", "Description", Duration.ofMinutes(30),
+                LocalDateTime.of(2024, 1, 1, 10, 0)));
+
+        manager.getPrioritizedTasks().get(0).setName("Changed");
+
+        assertEquals("Task", manager.getPrioritizedTasks().get(0).getName());
+    }
+}
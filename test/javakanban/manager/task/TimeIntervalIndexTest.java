@@ -0,0 +1,159 @@
+package javakanban.manager.task;
+
+import javakanban.models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeIntervalIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private TimeIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TimeIntervalIndex();
+    }
+
+    private Task task(int id, int startMinute, int durationMinutes) {
+        Task task = new Task("Task " + id, "Description",
+                Duration.ofMinutes(durationMinutes), BASE.plusMinutes(startMinute));
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    @DisplayName("findOverlap() находит задачу, пересекающуюся с интервалом")
+    void findOverlap_returnsOverlappingTask() {
+        Task task = task(1, 60, 60);
+        index.add(task);
+
+        assertEquals(task, index.findOverlap(BASE.plusMinutes(90), BASE.plusMinutes(150), -1));
+        assertEquals(task, index.findOverlap(BASE.plusMinutes(30), BASE.plusMinutes(70), -1));
+    }
+
+    @Test
+    @DisplayName("Соприкасающиеся интервалы не пересекаются")
+    void findOverlap_returnsNull_whenIntervalsTouch() {
+        index.add(task(1, 60, 60));
+
+        assertNull(index.findOverlap(BASE.plusMinutes(120), BASE.plusMinutes(180), -1));
+        assertNull(index.findOverlap(BASE, BASE.plusMinutes(60), -1));
+    }
+
+    @Test
+    @DisplayName("findOverlap() игнорирует задачу с исключённым id")
+    void findOverlap_skipsExcludedId() {
+        index.add(task(1, 60, 60));
+
+        assertNull(index.findOverlap(BASE.plusMinutes(60), BASE.plusMinutes(90), 1));
+    }
+
+    @Test
+    @DisplayName("Переиндексация задачи использует новые время и удаляет старый интервал")
+    void add_reindexesExistingTask() {
+        Task task = task(1, 60, 60);
+        index.add(task);
+
+        task.setStartTime(BASE.plusMinutes(600));
+        index.add(task);
+
+        assertEquals(1, index.size());
+        assertNull(index.findOverlap(BASE.plusMinutes(60), BASE.plusMinutes(120), -1));
+        assertEquals(task, index.findOverlap(BASE.plusMinutes(610), BASE.plusMinutes(620), -1));
+    }
+
+    @Test
+    @DisplayName("Удаление работает по сохранённому ключу, даже если задачу изменили")
+    void remove_usesIndexedKey_whenTaskMutated() {
+        Task task = task(1, 60, 60);
+        index.add(task);
+        task.setStartTime(BASE.plusMinutes(600));
+
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertEquals(0, index.size());
+        assertNull(index.findOverlap(BASE, BASE.plusMinutes(1000), -1));
+    }
+
+    @Test
+    @DisplayName("Индекс остаётся согласованным при множестве вставок и удалений")
+    void findOverlap_matchesLinearScan_afterManyMutations() {
+        for (int i = 1; i <= 500; i++) {
+            index.add(task(i, i * 10, 5));
+        }
+        for (int i = 1; i <= 500; i += 2) {
+            index.remove(i);
+        }
+
+        for (int minute = 0; minute < 5100; minute += 7) {
+            Task found = index.findOverlap(BASE.plusMinutes(minute), BASE.plusMinutes(minute + 3), -1);
+            boolean expected = false;
+            for (int i = 2; i <= 500; i += 2) {
+                if (i * 10 < minute + 3 && minute < i * 10 + 5) {
+                    expected = true;
+                    break;
+                }
+            }
+            assertEquals(expected, found != null, "Минута " + minute);
+        }
+    }
+
+    @Test
+    @DisplayName("Индекс, построенный из отсортированного списка, отвечает на запросы и принимает изменения")
+    void rebuild_buildsSearchableIndexFromSortedTasks() {
+        Task first = task(1, 0, 30);
+        Task unscheduled = new Task("Unscheduled", "Description");
+        unscheduled.setId(2);
+        Task second = task(3, 60, 30);
+        Task third = task(4, 120, 30);
+
+        index.rebuild(List.of(first, second, third, unscheduled));
+
+        assertEquals(3, index.size());
+        assertEquals(second, index.findOverlap(BASE.plusMinutes(70), BASE.plusMinutes(80), -1));
+        assertNull(index.findOverlap(BASE.plusMinutes(30), BASE.plusMinutes(60), -1));
+
+        assertTrue(index.remove(3));
+        index.add(task(5, 40, 10));
+        assertNull(index.findOverlap(BASE.plusMinutes(60), BASE.plusMinutes(90), -1));
+        assertEquals(5, index.findOverlap(BASE.plusMinutes(45), BASE.plusMinutes(46), -1).getId());
+    }
+
+    @Test
+    @DisplayName("findOverlaps() возвращает задачи интервала по времени начала и соблюдает лимит")
+    void findOverlaps_returnsTasksInRangeInStartOrder() {
+        index.add(task(1, 0, 30));
+        index.add(task(2, 50, 200));
+        index.add(task(3, 100, 10));
+        index.add(task(4, 120, 0));
+        index.add(task(5, 180, 30));
+
+        List<Task> found = index.findOverlaps(BASE.plusMinutes(60), BASE.plusMinutes(180), Integer.MAX_VALUE);
+
+        assertEquals(List.of(2, 3, 4), found.stream().map(Task::getId).toList());
+        assertEquals(List.of(2), index.findOverlaps(BASE.plusMinutes(60), BASE.plusMinutes(180), 1)
+                .stream().map(Task::getId).toList());
+        assertTrue(index.findOverlaps(BASE.plusMinutes(30), BASE.plusMinutes(50), 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("findFreeSlot() пропускает слишком короткие промежутки")
+    void findFreeSlot_returnsFirstGapLongEnough() {
+        index.add(task(1, 0, 60));
+        index.add(task(2, 80, 40));
+        index.add(task(3, 150, 30));
+
+        assertEquals(BASE.plusMinutes(60), index.findFreeSlot(BASE, Duration.ofMinutes(20)));
+        assertEquals(BASE.plusMinutes(120), index.findFreeSlot(BASE.plusMinutes(30), Duration.ofMinutes(30)));
+        assertEquals(BASE.plusMinutes(180), index.findFreeSlot(BASE, Duration.ofMinutes(31)));
+        assertEquals(BASE.plusMinutes(200), index.findFreeSlot(BASE.plusMinutes(200), Duration.ofMinutes(60)));
+    }
+}
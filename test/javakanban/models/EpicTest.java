@@ -3,6 +3,8 @@ package javakanban.models;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -61,4 +63,83 @@ class EpicTest {
         assertTrue(epic.getSubtaskIds().contains(2));
         assertTrue(epic.getSubtaskIds().contains(3));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("removeSubtaskId() удаляет ID, сохраняя порядок остальных подзадач")
+    void removeSubtaskId_keepsInsertionOrder() {
+        Epic epic = new Epic("Epic", "Epic Description");
+        epic.setId(1);
+        for (int id = 2; id <= 6; id++) {
+            epic.addSubtaskId(id);
+        }
+
+        List<Integer> before = epic.getSubtaskIds();
+        epic.removeSubtaskId(4);
+        epic.removeSubtaskId(2);
+
+        assertEquals(List.of(3, 5, 6), epic.getSubtaskIds());
+        assertEquals(List.of(2, 3, 4, 5, 6), before, "Полученный ранее список не должен меняться");
+    }
+
+    @Test
+    @DisplayName("applySubtask() пересчитывает статус и время эпика по агрегатам")
+    void applySubtask_updatesStatusAndTimes() {
+        Epic epic = new Epic("Epic", "Epic Description");
+        epic.setId(1);
+        Subtask first = new Subtask("Sub 1", "Desc", 1,
+                Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 1, 10, 0));
+        first.setId(2);
+        Subtask second = new Subtask("Sub 2", "Desc", 1,
+                Duration.ofMinutes(60), LocalDateTime.of(2024, 1, 1, 12, 0));
+        second.setId(3);
+        second.setStatus(TaskStatus.DONE);
+
+        epic.applySubtask(first);
+        epic.applySubtask(second);
+
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 13, 0), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(90), epic.getDuration());
+    }
+
+    @Test
+    @DisplayName("Повторный applySubtask() заменяет прежний вклад подзадачи, даже если её изменили напрямую")
+    void applySubtask_replacesPreviousContribution() {
+        Epic epic = new Epic("Epic", "Epic Description");
+        epic.setId(1);
+        Subtask subtask = new Subtask("Sub", "Desc", 1,
+                Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 1, 10, 0));
+        subtask.setId(2);
+        epic.applySubtask(subtask);
+
+        subtask.setStatus(TaskStatus.DONE);
+        subtask.setStartTime(LocalDateTime.of(2024, 1, 2, 10, 0));
+        epic.applySubtask(subtask);
+
+        assertEquals(TaskStatus.DONE, epic.getStatus());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 10, 0), epic.getStartTime());
+        assertEquals(Duration.ofMinutes(30), epic.getDuration());
+    }
+
+    @Test
+    @DisplayName("removeSubtaskId() убирает подзадачу из списка и из агрегатов")
+    void removeSubtaskId_resetsAggregates() {
+        Epic epic = new Epic("Epic", "Epic Description");
+        epic.setId(1);
+        Subtask subtask = new Subtask("Sub", "Desc", 1,
+                Duration.ofMinutes(30), LocalDateTime.of(2024, 1, 1, 10, 0));
+        subtask.setId(2);
+        subtask.setStatus(TaskStatus.DONE);
+        epic.addSubtaskId(2);
+        epic.applySubtask(subtask);
+
+        epic.removeSubtaskId(2);
+
+        assertTrue(epic.getSubtaskIds().isEmpty());
+        assertEquals(TaskStatus.NEW, epic.getStatus());
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+        assertEquals(Duration.ZERO, epic.getDuration());
+    }
+}
@@ -0,0 +1,127 @@
+package javakanban.utils;
+
+import javakanban.models.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotCodecTest {
+
+    private static byte[] encode(List<Task> tasks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySnapshotCodec.write(Channels.newChannel(out), tasks);
+        return out.toByteArray();
+    }
+
+    private static List<Task> decode(byte[] bytes) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        BinarySnapshotCodec.read(Channels.newChannel(new ByteArrayInputStream(bytes)), tasks::add);
+        return tasks;
+    }
+
+    @Test
+    @DisplayName("Задачи всех типов проходят запись и чтение без потерь, включая запятые и секунды")
+    void roundTrip_preservesAllFields() throws IOException {
+        Task task = new Task("Купить молоко, хлеб", "Описание, с запятыми\nи переносом",
+                Duration.ofMinutes(45), LocalDateTime.of(2025, 5, 1, 10, 30, 15, 500));
+        task.setId(1);
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        Epic epic = new Epic("Epic", null);
+        epic.setId(300);
+        Subtask subtask = new Subtask("Sub", "Description", 300, Duration.ofMinutes(10),
+                LocalDateTime.of(1969, 12, 31, 23, 0));
+        subtask.setId(70_000);
+        subtask.setStatus(TaskStatus.DONE);
+
+        List<Task> decoded = decode(encode(List.of(task, epic, subtask)));
+
+        assertEquals(3, decoded.size());
+        Task decodedTask = decoded.get(0);
+        assertEquals(task.getName(), decodedTask.getName());
+        assertEquals(task.getDescription(), decodedTask.getDescription());
+        assertEquals(task.getStartTime(), decodedTask.getStartTime());
+        assertEquals(task.getDuration(), decodedTask.getDuration());
+        assertEquals(TaskStatus.IN_PROGRESS, decodedTask.getStatus());
+
+        assertTrue(decoded.get(1) instanceof Epic);
+        assertNull(decoded.get(1).getDescription());
+        assertNull(decoded.get(1).getStartTime());
+
+        Subtask decodedSubtask = (Subtask) decoded.get(2);
+        assertEquals(70_000, decodedSubtask.getId());
+        assertEquals(300, decodedSubtask.getEpicId());
+        assertEquals(subtask.getStartTime(), decodedSubtask.getStartTime());
+        assertEquals(TaskStatus.DONE, decodedSubtask.getStatus());
+    }
+
+    /**
+     * Пересчитывает контрольную сумму, чтобы повреждение прошло проверку CRC
+     */
+    private static byte[] withValidChecksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, BinarySnapshotCodec.HEADER_SIZE, bytes.length - BinarySnapshotCodec.HEADER_SIZE);
+        ByteBuffer.wrap(bytes).putInt(20, (int) crc.getValue());
+        return bytes;
+    }
+
+    @Test
+    @DisplayName("Повреждённые записи с верной контрольной суммой отклоняются как IOException")
+    void read_rejectsMalformedRecordsWithValidChecksum() throws IOException {
+        Task task = new Task("Task", "Description");
+        task.setId(1);
+        byte[] valid = encode(List.of(task));
+
+        byte[] unknownType = valid.clone();
+        unknownType[BinarySnapshotCodec.HEADER_SIZE] |= 0b11;
+        byte[] unknownStatus = valid.clone();
+        unknownStatus[BinarySnapshotCodec.HEADER_SIZE] |= 0b1100;
+        byte[] extraCount = valid.clone();
+        ByteBuffer.wrap(extraCount).putInt(8, 2);
+        byte[] longName = valid.clone();
+        longName[BinarySnapshotCodec.HEADER_SIZE + 2] = 0x7F;
+
+        assertThrows(IOException.class, () -> decode(withValidChecksum(unknownType)));
+        assertThrows(IOException.class, () -> decode(withValidChecksum(unknownStatus)));
+        assertThrows(IOException.class, () -> decode(extraCount));
+        assertThrows(IOException.class, () -> decode(withValidChecksum(longName)));
+    }
+
+    @Test
+    @DisplayName("Повреждённые данные отклоняются по контрольной сумме")
+    void read_rejectsCorruptedPayload() throws IOException {
+        Task task = new Task("Task", "Description");
+        task.setId(1);
+        byte[] bytes = encode(List.of(task));
+        bytes[bytes.length - 1] ^= 0x01;
+
+        assertThrows(IOException.class, () -> decode(bytes));
+    }
+
+    @Test
+    @DisplayName("Двоичный снимок компактнее CSV")
+    void binarySnapshot_isSmallerThanCsv() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        StringBuilder csv = new StringBuilder(CsvConverter.getHeader()).append('\n');
+        for (int id = 1; id <= 1_000; id++) {
+            Task task = new Task("Task " + id, "Description", Duration.ofMinutes(30),
+                    LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(id));
+            task.setId(id);
+            tasks.add(task);
+            csv.append(CsvConverter.toString(task)).append('\n');
+        }
+
+        assertTrue(encode(tasks).length < csv.length());
+    }
+}
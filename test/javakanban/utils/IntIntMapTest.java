@@ -0,0 +1,53 @@
+package javakanban.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntMapTest {
+
+    @Test
+    @DisplayName("Отсутствующий ключ возвращает MISSING")
+    void get_returnsMissing_forAbsentKey() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 0);
+
+        assertEquals(0, map.get(1));
+        assertEquals(IntIntMap.MISSING, map.get(2));
+        assertEquals(IntIntMap.MISSING, map.remove(2));
+    }
+
+    @Test
+    @DisplayName("Отрицательные значения не принимаются")
+    void put_rejectsNegativeValue() {
+        assertThrows(IllegalArgumentException.class, () -> new IntIntMap().put(1, -1));
+    }
+
+    @Test
+    @DisplayName("Случайные вставки и удаления согласованы с HashMap")
+    void randomOperations_matchHashMap() {
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextBoolean()) {
+                int value = random.nextInt(1_000);
+                assertEquals(expected.getOrDefault(key, IntIntMap.MISSING), map.put(key, value));
+                expected.put(key, value);
+            } else {
+                assertEquals(expected.getOrDefault(key, IntIntMap.MISSING), map.remove(key));
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+    }
+}
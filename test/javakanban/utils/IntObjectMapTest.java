@@ -0,0 +1,107 @@
+package javakanban.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    private IntObjectMap<String> map;
+
+    @BeforeEach
+    void setUp() {
+        map = new IntObjectMap<>();
+    }
+
+    @Test
+    @DisplayName("put() и get() сохраняют и возвращают значения")
+    void put_get_returnsStoredValue() {
+        assertNull(map.put(1, "one"));
+        assertNull(map.put(-1, "minus one"));
+        assertNull(map.put(0, "zero"));
+
+        assertEquals("one", map.get(1));
+        assertEquals("minus one", map.get(-1));
+        assertEquals("zero", map.get(0));
+        assertNull(map.get(2));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    @DisplayName("Повторный put() заменяет значение и возвращает предыдущее")
+    void put_existingKey_replacesValue() {
+        map.put(5, "old");
+
+        assertEquals("old", map.put(5, "new"));
+        assertEquals("new", map.get(5));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    @DisplayName("null-значения не поддерживаются")
+    void put_null_throws() {
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+    }
+
+    @Test
+    @DisplayName("remove() не ломает цепочки пробирования соседних ключей")
+    void remove_keepsCollidingKeysReachable() {
+        // ключи с одинаковым хешем в таблице на 32 ячейки
+        map.put(1, "a");
+        map.put(33, "b");
+        map.put(65, "c");
+
+        assertEquals("a", map.remove(1));
+
+        assertEquals("b", map.get(33));
+        assertEquals("c", map.get(65));
+        assertFalse(map.containsKey(1));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    @DisplayName("Обход значений и ключей возвращает все записи")
+    void values_forEachKey_visitAllEntries() {
+        for (int i = 1; i <= 100; i++) {
+            map.put(i, "v" + i);
+        }
+
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+
+        assertEquals(100, keys.size());
+        assertEquals(100, map.values().size());
+        assertTrue(map.values().contains("v42"));
+        assertEquals(1, keys.get(0), "Последовательные id обходятся по возрастанию");
+    }
+
+    @Test
+    @DisplayName("Поведение совпадает с HashMap на случайной последовательности операций")
+    void randomOperations_matchHashMap() {
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package javakanban.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedIntSetTest {
+
+    @Test
+    @DisplayName("indexAfter() указывает на первое значение больше заданного")
+    void indexAfter_findsNextValue() {
+        SortedIntSet set = new SortedIntSet();
+        set.add(10);
+        set.add(20);
+        set.add(30);
+
+        assertEquals(0, set.indexAfter(0));
+        assertEquals(1, set.indexAfter(10));
+        assertEquals(2, set.indexAfter(25));
+        assertEquals(3, set.indexAfter(30));
+    }
+
+    @Test
+    @DisplayName("rebuild() сортирует значения и убирает повторы")
+    void rebuild_sortsAndDeduplicates() {
+        SortedIntSet set = new SortedIntSet();
+        set.rebuild(new int[]{5, 3, 5, 1});
+
+        assertEquals(3, set.size());
+        assertEquals(1, set.get(0));
+        assertEquals(3, set.get(1));
+        assertEquals(5, set.get(2));
+
+        set.add(4);
+        assertEquals(4, set.get(2));
+    }
+
+    @Test
+    @DisplayName("Случайные вставки и удаления согласованы с TreeSet")
+    void randomOperations_matchTreeSet() {
+        SortedIntSet set = new SortedIntSet();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(17);
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(1_000);
+            if (random.nextInt(3) > 0) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        int index = 0;
+        for (int value : expected) {
+            assertEquals(value, set.get(index++));
+        }
+    }
+}